@@ -0,0 +1,152 @@
+// Filename ArchiveStore.java
+// Written by Anthony Colley
+// Updated on 10/18/2026
+// Final Project - On-Disk Storage for Records No Longer Kept in Memory
+
+import java.io.*;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.function.Consumer;
+
+/**
+ * The ArchiveStore class keeps records that are no longer needed day to day (closed orders,
+ * retired menu items, inactive servers) on disk instead of on the heap. Each record is
+ * serialized to its own file, and an LruCache in front of the directory keeps recently
+ * read records in memory so repeated lookups do not go back to disk.
+ *
+ * @param <V> The type of record being archived.
+ */
+public class ArchiveStore<V extends Serializable> {
+    private static final String EXTENSION = ".ser";
+
+    private final Path directory;          // The directory holding one file per record
+    private final Class<V> type;           // The type of record stored
+    private final LruCache<String, V> cache; // Recently read records
+
+    /**
+     * Constructor to initialize an archive in a directory.
+     *
+     * @param directory     The directory holding the archived records.
+     * @param type          The type of record stored.
+     * @param cacheCapacity The number of recently read records kept in memory.
+     */
+    public ArchiveStore(String directory, Class<V> type, int cacheCapacity) {
+        this.directory = Paths.get(directory);
+        this.type = type;
+        this.cache = new LruCache<>(cacheCapacity);
+    }
+
+    /**
+     * Writes a record to the archive, replacing any record with the same key.
+     *
+     * @param key    The key the record is stored under.
+     * @param record The record to store.
+     * @throws IOException If an I/O error occurs.
+     */
+    public void put(String key, V record) throws IOException {
+        Files.createDirectories(directory);
+        // Write to a temporary file first so a crash never leaves a half-written record
+        Path temp = Files.createTempFile(directory, "archive", ".tmp");
+        try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeObject(record);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, fileFor(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        cache.put(key, record);
+    }
+
+    /**
+     * Reads a record from the archive, using the cache when the record was read recently.
+     *
+     * @param key The key the record is stored under.
+     * @return The record, or null if no record is stored under the key.
+     * @throws IOException If an I/O error occurs.
+     */
+    public V get(String key) throws IOException {
+        V record = cache.get(key);
+        if (record != null) {
+            return record;
+        }
+        Path file = fileFor(key);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        record = read(file);
+        cache.put(key, record);
+        return record;
+    }
+
+    /**
+     * Removes a record from the archive.
+     *
+     * @param key The key the record is stored under.
+     * @return True if a record was removed.
+     * @throws IOException If an I/O error occurs.
+     */
+    public boolean remove(String key) throws IOException {
+        cache.remove(key);
+        return Files.deleteIfExists(fileFor(key));
+    }
+
+    /**
+     * Reads every record in the archive one at a time, so that reports over the full
+     * history never hold more than one record from disk in memory. Records read this
+     * way bypass the cache so a report does not push out recently used records.
+     *
+     * @param action The action to perform on each record.
+     * @throws IOException If an I/O error occurs.
+     */
+    public void forEach(Consumer<? super V> action) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+            for (Path file : files) {
+                action.accept(read(file));
+            }
+        }
+    }
+
+    /**
+     * Reads every key in the archive one at a time.
+     *
+     * @param action The action to perform on each key.
+     * @throws IOException If an I/O error occurs.
+     */
+    public void forEachKey(Consumer<String> action) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                action.accept(URLDecoder.decode(name.substring(0, name.length() - EXTENSION.length()), StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    private V read(Path file) throws IOException {
+        try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            return type.cast(in.readObject());
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Archived record " + file + " could not be read.", e);
+        }
+    }
+
+    // Encodes the key so that any menu item or server name is a safe file name
+    private Path fileFor(String key) {
+        return directory.resolve(URLEncoder.encode(key, StandardCharsets.UTF_8) + EXTENSION);
+    }
+}
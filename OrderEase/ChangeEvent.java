@@ -0,0 +1,127 @@
+// Filename ChangeEvent.java
+// Written by Anthony Colley
+// Updated on 10/18/2026
+// Final Project - Represents a Change to Restaurant Data
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The ChangeEvent class represents one change to an order, table, or menu item. Events are
+ * numbered in the order they happened, so a consumer can remember the last sequence number
+ * it processed and pick up from there later.
+ *
+ * <p>In the change log each event is stored as one line of tab-separated text:
+ * sequence, time, type, key, and detail.
+ */
+public class ChangeEvent {
+
+    /**
+     * The kinds of change that are published.
+     */
+    public enum Type {
+        ORDER_ITEM_ADDED,
+        ORDER_ITEM_REMOVED,
+        ORDER_CLEARED,
+        ORDER_CLOSED,
+        TABLE_SEATED,
+        TABLE_SERVER_ASSIGNED,
+        TABLE_ORDER_STARTED,
+        MENU_ITEM_ADDED,
+        MENU_ITEM_AVAILABILITY_CHANGED,
+        MENU_ITEM_RETIRED
+    }
+
+    private final long sequence;  // Position of the event in the feed, starting at 0
+    private final long timestamp; // The time of the change in milliseconds since the epoch
+    private final Type type;      // The kind of change
+    private final String key;     // The order ID, table number, or menu item name that changed
+    private final String detail;  // A description of the change
+
+    /**
+     * Constructor to initialize a change event.
+     *
+     * @param sequence  Position of the event in the feed.
+     * @param timestamp The time of the change in milliseconds since the epoch.
+     * @param type      The kind of change.
+     * @param key       The order ID, table number, or menu item name that changed.
+     * @param detail    A description of the change.
+     */
+    public ChangeEvent(long sequence, long timestamp, Type type, String key, String detail) {
+        this.sequence = sequence;
+        this.timestamp = timestamp;
+        this.type = type;
+        this.key = key;
+        this.detail = detail == null ? "" : detail;
+    }
+
+    // Getters for change event data
+    public long getSequence() {
+        return sequence;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getDetail() {
+        return detail;
+    }
+
+    /**
+     * Encodes the event as one line of the change log.
+     *
+     * @return The encoded line, ending in a newline.
+     */
+    public byte[] toLogLine() {
+        String line = sequence + "\t" + timestamp + "\t" + type + "\t" + escape(key) + "\t" + escape(detail) + "\n";
+        return line.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Decodes an event from one line of the change log.
+     *
+     * @param line The line, with or without its trailing newline.
+     * @return The decoded event.
+     * @throws IllegalArgumentException If the line is not a valid change event.
+     */
+    public static ChangeEvent fromLogLine(String line) {
+        String[] fields = line.endsWith("\n") ? line.substring(0, line.length() - 1).split("\t", -1) : line.split("\t", -1);
+        if (fields.length != 5) {
+            throw new IllegalArgumentException("Not a change event: " + line);
+        }
+        return new ChangeEvent(Long.parseLong(fields[0]), Long.parseLong(fields[1]),
+                Type.valueOf(fields[2]), unescape(fields[3]), unescape(fields[4]));
+    }
+
+    @Override
+    public String toString() {
+        return "#" + sequence + " " + type + " " + key + (detail.isEmpty() ? "" : " (" + detail + ")");
+    }
+
+    // Tabs, newlines, and backslashes would break the line format, so they are escaped
+    private static String escape(String text) {
+        return text.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    private static String unescape(String text) {
+        StringBuilder result = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\' && i + 1 < text.length()) {
+                char next = text.charAt(++i);
+                result.append(next == 't' ? '\t' : next == 'n' ? '\n' : next == 'r' ? '\r' : next);
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+}
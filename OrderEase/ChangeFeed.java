@@ -0,0 +1,295 @@
+// Filename ChangeFeed.java
+// Written by Anthony Colley
+// Updated on 10/18/2026
+// Final Project - Publishes Changes to Orders, Tables, and Menu Items
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * The ChangeFeed class publishes a numbered stream of changes to orders, tables, and menu
+ * items so that other systems (kitchen displays, loyalty, accounting) can follow along.
+ * Consumers can subscribe in-process, or read the ChangeLog on disk with a ChangeLogConsumer.
+ *
+ * <p>Publishing only places the change on a queue. A single background thread numbers the
+ * queued events and writes them to the ChangeLog in batches, so disk writes do not hold up
+ * taking orders. A second thread passes events to subscribers. When there is a log, that
+ * thread reads the events back from the log, so subscribers only ever see events that were
+ * written, and a slow subscriber simply falls behind without holding up the writer.
+ */
+public class ChangeFeed implements Closeable {
+    private static final int QUEUE_CAPACITY = 65536;  // Events waiting to be written
+    private static final int MAX_BATCH = 1024;        // Events written to the log at once
+    private static final long RETRY_DELAY_MILLIS = 1000;  // Wait before reading the log again after a failure
+    private static final ChangeEvent STOP = new ChangeEvent(-1, 0, null, "", "");  // Tells the writer to finish
+
+    private final ChangeLog changeLog;                       // Where events are stored, or null for in-process only
+    private final BlockingQueue<ChangeEvent> queue;           // Events waiting to be written
+    private final List<Consumer<ChangeEvent>> subscribers;    // In-process consumers
+    private final BlockingQueue<List<ChangeEvent>> handoff;   // Batches for subscribers when there is no log
+    private final Thread writer;                              // Numbers events and writes them to the log
+    private final Thread dispatcher;                          // Passes written events to subscribers
+    private final Object written = new Object();              // Signalled when events have been written
+    private long nextSequence;                                // Sequence number of the next event written
+    private volatile boolean writerDone;                      // Set once the writer has written its last batch
+    private final ReadWriteLock closing = new ReentrantReadWriteLock(); // Keeps publish() and close() apart
+    private boolean closed;                                   // Set once close() has been called
+
+    /**
+     * Constructor to initialize a feed that only notifies in-process subscribers.
+     */
+    public ChangeFeed() {
+        this(null);
+    }
+
+    /**
+     * Constructor to initialize a feed that also writes every event to a change log.
+     * Numbering continues from the last event already in the log.
+     *
+     * @param changeLog The log events are written to, or null for in-process only.
+     */
+    public ChangeFeed(ChangeLog changeLog) {
+        this.changeLog = changeLog;
+        this.queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        this.subscribers = new CopyOnWriteArrayList<>();
+        this.handoff = new ArrayBlockingQueue<>(QUEUE_CAPACITY / MAX_BATCH);
+        this.nextSequence = changeLog == null ? 0 : changeLog.getNextSequence();
+        this.writer = new Thread(this::writeEvents, "change-feed-writer");
+        this.writer.setDaemon(true);
+        long firstSequence = nextSequence;
+        this.dispatcher = new Thread(changeLog == null ? this::dispatchHandedOff : () -> dispatchFromLog(firstSequence),
+                "change-feed-dispatcher");
+        this.dispatcher.setDaemon(true);
+        this.writer.start();
+        this.dispatcher.start();
+    }
+
+    /**
+     * Publishes a change. The change is queued; it is numbered, written, and delivered
+     * to subscribers in the background.
+     *
+     * @param type   The kind of change.
+     * @param key    The order ID, table number, or menu item name that changed.
+     * @param detail A description of the change.
+     */
+    public void publish(ChangeEvent.Type type, String key, String detail) {
+        Objects.requireNonNull(type, "type");
+        // Publishers share the read lock, so close() cannot queue STOP while an event is being queued
+        closing.readLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            // Only blocks if the writer has fallen a full queue behind
+            queue.put(new ChangeEvent(-1, System.currentTimeMillis(), type, key, detail));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            closing.readLock().unlock();
+        }
+    }
+
+    /**
+     * Registers an in-process subscriber. Subscribers are called on the feed's dispatch
+     * thread, in sequence order, after each event has been written to the log. Without a log,
+     * a subscriber that falls a full queue behind holds up publishing, since there is nowhere
+     * else to keep the events.
+     *
+     * @param subscriber The subscriber to call for each event.
+     */
+    public void subscribe(Consumer<ChangeEvent> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    /**
+     * Removes an in-process subscriber.
+     *
+     * @param subscriber The subscriber to remove.
+     */
+    public void unsubscribe(Consumer<ChangeEvent> subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    public ChangeLog getChangeLog() {
+        return changeLog;
+    }
+
+    /**
+     * Stops accepting events, writes everything still queued, waits for subscribers to receive
+     * it, and closes the change log.
+     *
+     * @throws IOException If the change log could not be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        closing.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            // Not an interrupt: interrupting a thread in the middle of a FileChannel write closes the channel.
+            // Holding the write lock makes STOP the last event ever queued.
+            queue.put(STOP);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } finally {
+            closing.writeLock().unlock();
+        }
+        try {
+            writer.join();
+            dispatcher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (changeLog != null) {
+            changeLog.close();
+        }
+    }
+
+    private void writeEvents() {
+        List<ChangeEvent> batch = new ArrayList<>(MAX_BATCH);
+        boolean running = true;
+        while (running) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                break;
+            }
+            queue.drainTo(batch, MAX_BATCH - 1);
+            int stop = batch.indexOf(STOP);
+            if (stop >= 0) {
+                batch.subList(stop, batch.size()).clear(); // STOP is never written; nothing is queued after it
+                running = false;
+            }
+            if (batch.isEmpty()) {
+                continue;
+            }
+
+            // Only this thread numbers events, so they are always written in sequence order
+            for (int i = 0; i < batch.size(); i++) {
+                ChangeEvent event = batch.get(i);
+                batch.set(i, new ChangeEvent(nextSequence++, event.getTimestamp(), event.getType(),
+                        event.getKey(), event.getDetail()));
+            }
+            if (changeLog != null) {
+                try {
+                    changeLog.append(batch);
+                } catch (IOException | RuntimeException e) {
+                    // The events that did not make it into the log are dropped, and their numbers are reused
+                    long dropped = nextSequence - changeLog.getNextSequence();
+                    System.err.println("Could not write " + dropped + " change events to the log: " + e.getMessage());
+                    nextSequence = changeLog.getNextSequence(); // Keep the log free of gaps
+                }
+                synchronized (written) {
+                    written.notifyAll();
+                }
+            } else {
+                try {
+                    handoff.put(new ArrayList<>(batch));
+                } catch (InterruptedException e) {
+                    break;
+                }
+            }
+            batch.clear();
+        }
+        writerDone = true;
+        if (changeLog != null) {
+            synchronized (written) {
+                written.notifyAll();
+            }
+        } else {
+            try {
+                handoff.put(new ArrayList<>()); // An empty batch tells the dispatcher the writer is done
+            } catch (InterruptedException e) {
+                dispatcher.interrupt();
+            }
+        }
+    }
+
+    // Reads events back from the log as they are written and passes them to subscribers
+    private void dispatchFromLog(long position) {
+        int batchSize = MAX_BATCH;
+        while (true) {
+            try {
+                synchronized (written) {
+                    while (position >= changeLog.getNextSequence() && !writerDone) {
+                        written.wait();
+                    }
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+            List<ChangeEvent> events;
+            try {
+                events = changeLog.read(position, batchSize);
+            } catch (RuntimeException e) {
+                // An event that cannot be decoded would stop delivery for good, so find it and skip it
+                if (batchSize > 1) {
+                    batchSize = 1;
+                } else {
+                    System.err.println("Skipping change event " + position + " that could not be read: " + e);
+                    position++;
+                    batchSize = MAX_BATCH;
+                }
+                continue;
+            } catch (IOException e) {
+                System.err.println("Could not read change event " + position + " for subscribers: " + e.getMessage());
+                if (writerDone) {
+                    return;
+                }
+                try {
+                    synchronized (written) {
+                        written.wait(RETRY_DELAY_MILLIS);
+                    }
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+                continue;
+            }
+            if (events.isEmpty()) {
+                return; // Only happens once the writer is done and everything has been delivered
+            }
+            deliver(events);
+            position += events.size();
+        }
+    }
+
+    // Passes batches handed over by the writer to subscribers when there is no log
+    private void dispatchHandedOff() {
+        while (true) {
+            List<ChangeEvent> events;
+            try {
+                events = handoff.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (events.isEmpty()) {
+                return;
+            }
+            deliver(events);
+        }
+    }
+
+    private void deliver(List<ChangeEvent> events) {
+        for (ChangeEvent event : events) {
+            for (Consumer<ChangeEvent> subscriber : subscribers) {
+                try {
+                    subscriber.accept(event);
+                } catch (RuntimeException e) {
+                    System.err.println("Change feed subscriber failed on event " + event.getSequence() + ": " + e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,476 @@
+// Filename ChangeLog.java
+// Written by Anthony Colley
+// Updated on 10/18/2026
+// Final Project - Segmented On-Disk Log of Change Events
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * The ChangeLog class stores change events on disk so that other systems can read them at
+ * their own pace. The log is split into segment files named after the sequence number of
+ * their first event. Each segment has a matching index file holding the byte position of
+ * every event, so any sequence number can be found without scanning the log.
+ *
+ * <p>Only one writer (the ChangeFeed) appends to the log, while any number of readers can
+ * read from it at the same time. Readers only ever see events that have been fully written:
+ * a batch's index entries are written only after all of its events are in the log, so the
+ * index never points at an event that could still be rolled back.
+ *
+ * <p>Another process (a kitchen display, for example) can follow the log with
+ * {@link #openReadOnly(String)}. A read-only log never changes the files and picks up events
+ * and segments added by the writer as it reads.
+ */
+public class ChangeLog implements Closeable {
+    private static final long DEFAULT_SEGMENT_BYTES = 64L * 1024 * 1024;  // Size at which a new segment is started
+    private static final String LOG_EXTENSION = ".log";
+    private static final String INDEX_EXTENSION = ".idx";
+    private static final int INDEX_ENTRY_BYTES = Long.BYTES;
+
+    private final Path directory;          // The directory holding the segment files
+    private final long maxSegmentBytes;    // Size at which a new segment is started
+    private final boolean readOnly;        // True if another process writes the log
+    private final ConcurrentSkipListMap<Long, Segment> segments;  // Segments by first sequence number
+    private volatile long nextSequence;    // Sequence number of the next event to be written
+
+    /**
+     * Constructor to open (and if needed create) a change log with the default segment size.
+     *
+     * @param directory The directory holding the segment files.
+     * @throws IOException If an I/O error occurs.
+     */
+    public ChangeLog(String directory) throws IOException {
+        this(directory, DEFAULT_SEGMENT_BYTES);
+    }
+
+    /**
+     * Constructor to open (and if needed create) a change log.
+     *
+     * @param directory       The directory holding the segment files.
+     * @param maxSegmentBytes Size at which a new segment is started.
+     * @throws IOException If an I/O error occurs.
+     */
+    public ChangeLog(String directory, long maxSegmentBytes) throws IOException {
+        this(Paths.get(directory), maxSegmentBytes, false);
+    }
+
+    private ChangeLog(Path directory, long maxSegmentBytes, boolean readOnly) throws IOException {
+        this.directory = directory;
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.readOnly = readOnly;
+        this.segments = new ConcurrentSkipListMap<>();
+        if (readOnly) {
+            openNewSegments();
+            nextSequence = segments.isEmpty() ? 0 : endOf(segments.lastEntry().getValue());
+            return;
+        }
+
+        Files.createDirectories(directory);
+        openNewSegments();
+        if (segments.isEmpty()) {
+            segments.put(0L, new Segment(0L));
+        }
+        // Drop anything past the last committed event, in case the writer stopped partway through a batch
+        Segment last = segments.lastEntry().getValue();
+        last.recover();
+        nextSequence = endOf(last);
+    }
+
+    /**
+     * Opens a change log written by another process, for reading only. The files are never
+     * changed, and events the writer adds later become readable as they are committed.
+     * The directory does not need to exist yet.
+     *
+     * @param directory The directory holding the segment files.
+     * @return The read-only change log.
+     * @throws IOException If an I/O error occurs.
+     */
+    public static ChangeLog openReadOnly(String directory) throws IOException {
+        return new ChangeLog(Paths.get(directory), DEFAULT_SEGMENT_BYTES, true);
+    }
+
+    /**
+     * Returns the sequence number the next event will be given. Every event with a lower
+     * sequence number can be read. For a read-only log this is as of the last read.
+     *
+     * @return The sequence number of the next event to be written.
+     */
+    public long getNextSequence() {
+        return nextSequence;
+    }
+
+    /**
+     * Returns the sequence number of the oldest event still in the log.
+     *
+     * @return The sequence number of the first event in the first segment.
+     */
+    public long getFirstSequence() {
+        return segments.isEmpty() ? 0 : segments.firstKey();
+    }
+
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    /**
+     * Writes events to the end of the log. The events must continue on from the last event written.
+     * If the write fails, events already moved into a finished segment stay in the log and
+     * getNextSequence() tells where the log ends.
+     *
+     * @param events The events to write, in sequence order.
+     * @throws IOException If an I/O error occurs or the log is read-only.
+     */
+    public synchronized void append(List<ChangeEvent> events) throws IOException {
+        if (readOnly) {
+            throw new IOException("Change log in " + directory + " is open for reading only.");
+        }
+        long expected = nextSequence;
+        Segment segment = segments.lastEntry().getValue();
+        try {
+            for (ChangeEvent event : events) {
+                if (event.getSequence() != expected) {
+                    throw new IOException("Change event " + event.getSequence() + " is out of order; expected " + expected + ".");
+                }
+                if (segment.writeSize >= maxSegmentBytes && segment.writeCount > 0) {
+                    segment.commit();
+                    nextSequence = expected;
+                    segment.force();
+                    segment = new Segment(expected);
+                    segments.put(expected, segment);
+                }
+                segment.append(event.toLogLine());
+                expected++;
+            }
+            // Publish the new events to readers only after they are fully written
+            segment.commit();
+        } catch (IOException | RuntimeException e) {
+            // Forget the partly written batch; the next append overwrites it
+            segment.rollback();
+            throw e;
+        }
+        nextSequence = expected;
+    }
+
+    /**
+     * Reads up to a number of events starting at a sequence number.
+     *
+     * @param fromSequence The sequence number of the first event to read.
+     * @param maxEvents    The most events to read.
+     * @return The events read, which may be fewer than requested (or none) at the end of the log.
+     * @throws IOException If an I/O error occurs or the events have been removed from the log.
+     */
+    public List<ChangeEvent> read(long fromSequence, int maxEvents) throws IOException {
+        refreshIfNeeded(fromSequence + maxEvents);
+        List<ChangeEvent> events = new ArrayList<>();
+        long sequence = fromSequence;
+        while (events.size() < maxEvents && sequence < nextSequence) {
+            Segment segment = segmentFor(sequence);
+            Extent extent = segment.committed;
+            long end = Math.min(segment.baseSequence + extent.count, sequence + (maxEvents - events.size()));
+            if (end <= sequence) {
+                break;
+            }
+            long start = segment.positionOf(sequence, extent);
+            long stop = segment.positionOf(end, extent);
+            ByteBuffer buffer = ByteBuffer.allocate((int) (stop - start));
+            while (buffer.hasRemaining()) {
+                if (segment.log.read(buffer, start + buffer.position()) < 0) {
+                    throw new IOException("Change log segment is shorter than its index.");
+                }
+            }
+            buffer.flip();
+            for (String line : StandardCharsets.UTF_8.decode(buffer).toString().split("\n")) {
+                events.add(ChangeEvent.fromLogLine(line));
+            }
+            sequence = end;
+        }
+        return events;
+    }
+
+    /**
+     * Copies up to a number of encoded events straight from the log file to a channel
+     * (such as a socket or another file) without reading them into memory, using
+     * FileChannel.transferTo. A single call stops at the end of a segment.
+     *
+     * @param fromSequence The sequence number of the first event to copy.
+     * @param maxEvents    The most events to copy.
+     * @param target       The channel to copy the events to.
+     * @return The sequence number to continue from on the next call.
+     * @throws IOException If an I/O error occurs or the events have been removed from the log.
+     */
+    public long transferTo(long fromSequence, int maxEvents, WritableByteChannel target) throws IOException {
+        refreshIfNeeded(fromSequence + maxEvents);
+        if (fromSequence >= nextSequence || maxEvents <= 0) {
+            return fromSequence;
+        }
+        Segment segment = segmentFor(fromSequence);
+        // One snapshot of the segment, so the byte range always matches the events returned
+        Extent extent = segment.committed;
+        long end = Math.min(segment.baseSequence + extent.count, fromSequence + maxEvents);
+        if (end <= fromSequence) {
+            return fromSequence;
+        }
+        long position = segment.positionOf(fromSequence, extent);
+        long stop = segment.positionOf(end, extent);
+        while (position < stop) {
+            position += segment.log.transferTo(position, stop - position, target);
+        }
+        return end;
+    }
+
+    /**
+     * Forces everything written so far to the storage device.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    public synchronized void flush() throws IOException {
+        if (!readOnly) {
+            segments.lastEntry().getValue().force();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        flush();
+        for (Segment segment : segments.values()) {
+            segment.close();
+        }
+    }
+
+    private Segment segmentFor(long sequence) throws IOException {
+        Map.Entry<Long, Segment> entry = segments.floorEntry(sequence);
+        if (entry == null) {
+            throw new IOException("Change event " + sequence + " is no longer in the log.");
+        }
+        return entry.getValue();
+    }
+
+    private static long endOf(Segment segment) {
+        return segment.baseSequence + segment.committed.count;
+    }
+
+    // Opens segment files newer than the last one already open
+    private void openNewSegments() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        long last = segments.isEmpty() ? -1 : segments.lastKey();
+        List<Long> found = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + LOG_EXTENSION)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                long baseSequence = Long.parseLong(name.substring(0, name.length() - LOG_EXTENSION.length()));
+                if (baseSequence > last) {
+                    found.add(baseSequence);
+                }
+            }
+        }
+        found.sort(null);
+        for (long baseSequence : found) {
+            try {
+                segments.put(baseSequence, new Segment(baseSequence));
+            } catch (NoSuchFileException e) {
+                break; // The writer has created the log file but not yet the index; pick it up next time
+            }
+        }
+    }
+
+    // A read-only log catches up with the writer when a reader asks for events past what it has seen
+    private synchronized void refreshIfNeeded(long wantedSequence) throws IOException {
+        if (!readOnly || wantedSequence <= nextSequence) {
+            return;
+        }
+        Segment last = segments.isEmpty() ? null : segments.lastEntry().getValue();
+        if (last == null || !last.reload()) {
+            // Nothing new in the last segment, so the writer may have moved on to a new one.
+            // It finishes a segment before starting the next, so re-read the old one afterwards.
+            openNewSegments();
+            if (last != null) {
+                last.reload();
+            }
+            for (Segment segment : segments.tailMap(last == null ? Long.MIN_VALUE : last.baseSequence, false).values()) {
+                segment.reload();
+            }
+        }
+        if (!segments.isEmpty()) {
+            nextSequence = endOf(segments.lastEntry().getValue());
+        }
+    }
+
+    /**
+     * The Extent class is how much of a segment readers may see. The count and size are
+     * published together, so a reader never pairs the count of one commit with the size of another.
+     */
+    private static class Extent {
+        private final long count;  // Events readers may see
+        private final long size;   // Bytes of those events
+
+        Extent(long count, long size) {
+            this.count = count;
+            this.size = size;
+        }
+    }
+
+    /**
+     * The Segment class is one log file and its index.
+     */
+    private class Segment {
+        private final long baseSequence;  // Sequence number of the first event in the segment
+        private final FileChannel log;    // The encoded events
+        private final FileChannel index;  // The byte position of each committed event in the log
+        private long writeSize;                // Bytes written to the log, seen only by the writer
+        private long writeCount;               // Events written to the log, seen only by the writer
+        private ByteBuffer pendingIndex;       // Index entries of written events not yet committed
+        private volatile Extent committed;     // What readers may see
+
+        Segment(long baseSequence) throws IOException {
+            this.baseSequence = baseSequence;
+            String name = String.format("%020d", baseSequence);
+            if (readOnly) {
+                // The writer creates the log file before the index, so once the index exists so does the log
+                this.index = FileChannel.open(directory.resolve(name + INDEX_EXTENSION), StandardOpenOption.READ);
+                this.log = FileChannel.open(directory.resolve(name + LOG_EXTENSION), StandardOpenOption.READ);
+                this.committed = new Extent(0, 0);
+                reload();
+                return;
+            }
+            this.log = FileChannel.open(directory.resolve(name + LOG_EXTENSION),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.index = FileChannel.open(directory.resolve(name + INDEX_EXTENSION),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.pendingIndex = ByteBuffer.allocate(INDEX_ENTRY_BYTES * 1024);
+            this.writeCount = index.size() / INDEX_ENTRY_BYTES;
+            this.writeSize = log.size();
+            this.committed = new Extent(writeCount, writeSize);
+        }
+
+        // Drops anything past the last complete, indexed event, in case the program stopped partway through a write
+        void recover() throws IOException {
+            while (true) {
+                index.truncate(writeCount * INDEX_ENTRY_BYTES);
+                if (writeCount == 0) {
+                    writeSize = 0;
+                    break;
+                }
+                long end = endOfLine(indexedPosition(writeCount - 1));
+                if (end >= 0) {
+                    writeSize = end;
+                    break;
+                }
+                writeCount--; // The last indexed event was never finished, so drop it too
+            }
+            log.truncate(writeSize);
+            committed = new Extent(writeCount, writeSize);
+        }
+
+        // Picks up events another process has committed since the last reload; returns true if there were any
+        boolean reload() throws IOException {
+            long count = index.size() / INDEX_ENTRY_BYTES;
+            if (count == committed.count) {
+                return false;
+            }
+            long size = count == 0 ? 0 : endOfLine(indexedPosition(count - 1));
+            if (size < 0) {
+                return false; // The writer always finishes an event before indexing it, so try again later
+            }
+            committed = new Extent(count, size);
+            return true;
+        }
+
+        void append(byte[] line) throws IOException {
+            long position = writeSize;
+            ByteBuffer data = ByteBuffer.wrap(line);
+            while (data.hasRemaining()) {
+                log.write(data, position + data.position());
+            }
+            if (!pendingIndex.hasRemaining()) {
+                pendingIndex.flip();
+                pendingIndex = ByteBuffer.allocate(pendingIndex.capacity() * 2).put(pendingIndex);
+            }
+            pendingIndex.putLong(position);
+            writeSize = position + line.length;
+            writeCount++;
+        }
+
+        // Indexes the events written since the last commit and lets readers see them
+        void commit() throws IOException {
+            pendingIndex.flip();
+            long position = committed.count * INDEX_ENTRY_BYTES;
+            while (pendingIndex.hasRemaining()) {
+                position += index.write(pendingIndex, position);
+            }
+            pendingIndex.clear();
+            committed = new Extent(writeCount, writeSize);
+        }
+
+        void rollback() {
+            Extent extent = committed;
+            pendingIndex.clear();
+            writeSize = extent.size;
+            writeCount = extent.count;
+            try {
+                // A failed commit may have left some of the batch's index entries behind
+                index.truncate(extent.count * INDEX_ENTRY_BYTES);
+            } catch (IOException e) {
+                // The next commit writes over them anyway
+            }
+        }
+
+        long positionOf(long sequence, Extent extent) throws IOException {
+            long offset = sequence - baseSequence;
+            return offset >= extent.count ? extent.size : indexedPosition(offset);
+        }
+
+        private long indexedPosition(long offset) throws IOException {
+            ByteBuffer entry = ByteBuffer.allocate(INDEX_ENTRY_BYTES);
+            while (entry.hasRemaining()) {
+                if (index.read(entry, offset * INDEX_ENTRY_BYTES + entry.position()) < 0) {
+                    throw new IOException("Change log index is shorter than expected.");
+                }
+            }
+            return entry.getLong(0);
+        }
+
+        // The position just past the newline ending the event at a position, or -1 if the log ends first
+        private long endOfLine(long position) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(4096);
+            while (true) {
+                buffer.clear();
+                int read = log.read(buffer, position);
+                if (read <= 0) {
+                    return -1;
+                }
+                for (int i = 0; i < read; i++) {
+                    if (buffer.get(i) == '\n') {
+                        return position + i + 1;
+                    }
+                }
+                position += read;
+            }
+        }
+
+        void force() throws IOException {
+            log.force(false);
+            index.force(false);
+        }
+
+        void close() throws IOException {
+            log.close();
+            index.close();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+// Filename ChangeLogConsumer.java
+// Written by Anthony Colley
+// Updated on 10/18/2026
+// Final Project - Reads the Change Log and Remembers Its Place
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+/**
+ * The ChangeLogConsumer class lets a downstream system read the ChangeLog in batches and
+ * pick up where it left off after a restart. Each consumer has a name, and the sequence
+ * number it has processed up to is saved in a small offset file next to the log.
+ */
+public class ChangeLogConsumer {
+    private static final String OFFSET_EXTENSION = ".offset";
+
+    private final ChangeLog changeLog;  // The log being read
+    private final Path offsetFile;      // Where the committed position is saved
+    private long position;              // Sequence number of the next event to read
+
+    /**
+     * Constructor to initialize a consumer, resuming from its last committed position.
+     * A new consumer starts at the oldest event in the log.
+     *
+     * @param changeLog The log to read.
+     * @param directory The directory where the offset file is kept.
+     * @param name      The name of the consumer (e.g. "kitchen" or "accounting").
+     * @throws IOException If the offset file could not be read.
+     */
+    public ChangeLogConsumer(ChangeLog changeLog, Path directory, String name) throws IOException {
+        this.changeLog = changeLog;
+        this.offsetFile = directory.resolve(name + OFFSET_EXTENSION);
+        if (Files.exists(offsetFile)) {
+            position = Long.parseLong(new String(Files.readAllBytes(offsetFile), StandardCharsets.UTF_8).trim());
+        } else {
+            position = changeLog.getFirstSequence();
+        }
+    }
+
+    /**
+     * Reads the next batch of events. The position moves past the events returned, but is
+     * only saved when commit() is called.
+     *
+     * @param maxEvents The most events to read.
+     * @return The events read, or an empty list if the consumer has caught up.
+     * @throws IOException If the log could not be read.
+     */
+    public List<ChangeEvent> poll(int maxEvents) throws IOException {
+        List<ChangeEvent> events = changeLog.read(position, maxEvents);
+        position += events.size();
+        return events;
+    }
+
+    /**
+     * Copies the next batch of encoded events straight to a channel without decoding them.
+     * The position moves past the events copied, but is only saved when commit() is called.
+     *
+     * @param maxEvents The most events to copy.
+     * @param target    The channel to copy the events to.
+     * @return The number of events copied.
+     * @throws IOException If the log could not be read or the channel could not be written.
+     */
+    public int transferTo(int maxEvents, WritableByteChannel target) throws IOException {
+        long next = changeLog.transferTo(position, maxEvents, target);
+        int copied = (int) (next - position);
+        position = next;
+        return copied;
+    }
+
+    /**
+     * Saves the current position so that a restarted consumer continues from here.
+     *
+     * @throws IOException If the offset file could not be written.
+     */
+    public void commit() throws IOException {
+        Path temp = offsetFile.resolveSibling(offsetFile.getFileName() + ".tmp");
+        Files.write(temp, Long.toString(position).getBytes(StandardCharsets.UTF_8));
+        Files.move(temp, offsetFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Moves the consumer to a different position, such as to replay events.
+     *
+     * @param sequence The sequence number of the next event to read.
+     */
+    public void seek(long sequence) {
+        position = sequence;
+    }
+
+    public long getPosition() {
+        return position;
+    }
+}
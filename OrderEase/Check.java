@@ -0,0 +1,209 @@
+// Filename Check.java
+// Written by Anthony Colley
+// Updated on 10/18/2026
+// Final Project - Represents a Check Presented to Guests at a Table
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The Check class represents a bill presented to one or more guests at a table.
+ * All amounts are kept as BigDecimal values rounded to cents so that split checks,
+ * tax, tips, and payments always add up exactly.
+ */
+public class Check implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private String checkId;            // The identifier of the check (e.g. "T1" or "T1-2")
+    private int tableNumber;           // The table the check belongs to
+    private List<LineItem> lineItems;  // The charges listed on the check
+    private BigDecimal subtotal;       // Sum of the line items before tax and tip
+    private BigDecimal tax;            // Tax charged on the subtotal
+    private BigDecimal tip;            // Tip added by the guest
+    private List<Payment> payments;    // Payments recorded against the check
+    private String pendingPaymentKey;  // Idempotency key for the balance payment until it succeeds
+
+    /**
+     * Constructor to initialize a check with its line items and tax.
+     *
+     * @param checkId     The identifier of the check.
+     * @param tableNumber The table the check belongs to.
+     * @param lineItems   The charges listed on the check.
+     * @param tax         The tax charged on the check.
+     */
+    public Check(String checkId, int tableNumber, List<LineItem> lineItems, BigDecimal tax) {
+        this.checkId = checkId;
+        this.tableNumber = tableNumber;
+        this.lineItems = new ArrayList<>(lineItems);
+        this.subtotal = Money.ZERO;
+        for (LineItem lineItem : lineItems) {
+            subtotal = subtotal.add(lineItem.getAmount());
+        }
+        this.tax = Money.round(tax);
+        this.tip = Money.ZERO;
+        this.payments = new ArrayList<>();
+    }
+
+    // Getters and setters for check data
+    public String getCheckId() {
+        return checkId;
+    }
+
+    public int getTableNumber() {
+        return tableNumber;
+    }
+
+    public List<LineItem> getLineItems() {
+        return Collections.unmodifiableList(lineItems);
+    }
+
+    public BigDecimal getSubtotal() {
+        return subtotal;
+    }
+
+    public BigDecimal getTax() {
+        return tax;
+    }
+
+    public BigDecimal getTip() {
+        return tip;
+    }
+
+    public void setTip(BigDecimal tip) {
+        this.tip = Money.round(tip);
+    }
+
+    public synchronized List<Payment> getPayments() {
+        return new ArrayList<>(payments);
+    }
+
+    /**
+     * Calculates the total amount owed on the check.
+     *
+     * @return The subtotal plus tax and tip.
+     */
+    public BigDecimal getTotal() {
+        return subtotal.add(tax).add(tip);
+    }
+
+    /**
+     * Calculates the amount already paid on the check.
+     *
+     * @return The sum of all recorded payments.
+     */
+    public synchronized BigDecimal getAmountPaid() {
+        BigDecimal paid = Money.ZERO;
+        for (Payment payment : payments) {
+            paid = paid.add(payment.getAmount());
+        }
+        return paid;
+    }
+
+    /**
+     * Calculates the amount still owed on the check.
+     *
+     * @return The total minus the amount already paid.
+     */
+    public synchronized BigDecimal getBalanceDue() {
+        return getTotal().subtract(getAmountPaid());
+    }
+
+    /**
+     * Checks whether the check has been paid in full.
+     *
+     * @return True if nothing remains owed on the check.
+     */
+    public boolean isSettled() {
+        return getBalanceDue().signum() <= 0;
+    }
+
+    /**
+     * Finds a payment previously recorded with the given idempotency key.
+     *
+     * @param idempotencyKey The key the payment was submitted with.
+     * @return The matching payment, or null if none was recorded.
+     */
+    public synchronized Payment findPayment(String idempotencyKey) {
+        for (Payment payment : payments) {
+            if (payment.getIdempotencyKey().equals(idempotencyKey)) {
+                return payment;
+            }
+        }
+        return null;
+    }
+
+    // Records a payment against the check; only the SettlementEngine adds payments
+    synchronized void addPayment(Payment payment) {
+        payments.add(payment);
+        if (payment.getIdempotencyKey().equals(pendingPaymentKey)) {
+            pendingPaymentKey = null;
+        }
+    }
+
+    // The key for paying the balance stays the same until that payment is recorded, so a retry
+    // after a failure (even one where the processor charged but did not answer) never charges twice
+    synchronized String pendingPaymentKey(String newKey) {
+        if (pendingPaymentKey == null) {
+            pendingPaymentKey = newKey;
+        }
+        return pendingPaymentKey;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder("Check ").append(checkId)
+                .append(" (Table ").append(tableNumber).append(")\n");
+        for (LineItem lineItem : lineItems) {
+            text.append(lineItem).append("\n");
+        }
+        text.append("Subtotal: $").append(subtotal).append("\n")
+                .append("Tax: $").append(tax).append("\n")
+                .append("Tip: $").append(tip).append("\n")
+                .append("Total: $").append(getTotal()).append("\n")
+                .append("Balance Due: $").append(getBalanceDue());
+        return text.toString();
+    }
+
+    /**
+     * The LineItem class represents a single charge on a check.
+     */
+    public static class LineItem implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private String description;  // The name of the item or share being charged
+        private BigDecimal amount;   // The amount charged
+        private int seat;            // The seat the charge belongs to (0 = shared by the table)
+
+        /**
+         * Constructor to initialize a line item.
+         *
+         * @param description The name of the item or share being charged.
+         * @param amount      The amount charged.
+         * @param seat        The seat the charge belongs to, or 0 if shared.
+         */
+        public LineItem(String description, BigDecimal amount, int seat) {
+            this.description = description;
+            this.amount = Money.round(amount);
+            this.seat = seat;
+        }
+
+        // Getters for line item data
+        public String getDescription() {
+            return description;
+        }
+
+        public BigDecimal getAmount() {
+            return amount;
+        }
+
+        public int getSeat() {
+            return seat;
+        }
+
+        @Override
+        public String toString() {
+            return (seat > 0 ? "Seat " + seat + ": " : "") + description + " - $" + amount;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+// Filename FileStorageBackend.java
+// Written by Anthony Colley
+// Updated on 10/18/2026
+// Final Project - Stores Restaurant Data in Serialized Files
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * The FileStorageBackend class stores the live restaurant data in a single file using Java
+ * serialization (the original restaurant_data.dat format), and keeps the history in
+ * ArchiveStore directories with one file per record. Single lookups of live data are answered
+ * from a copy of the data file kept in memory, which is read again only when the file changes.
+ */
+public class FileStorageBackend implements StorageBackend {
+    private static final int ARCHIVE_CACHE_SIZE = 256;  // Archived records kept in memory per store
+
+    private final String dataFile;                   // The file holding the live restaurant data
+    private final ArchiveStore<Order> closedOrders;       // Every closed order
+    private final ArchiveStore<MenuItem> retiredMenu;     // Menu items no longer offered
+    private final ArchiveStore<Server> inactiveServers;   // Servers no longer working
+    private Snapshot lookupCopy;        // The live data last read for single lookups
+    private long lookupCopyModified;    // When the data file was changed as of lookupCopy
+    private long lookupCopyLength;      // The size of the data file as of lookupCopy
+
+    /**
+     * Constructor to initialize the backend.
+     *
+     * @param dataFile         The file holding the live restaurant data.
+     * @param archiveDirectory The directory where history is archived.
+     */
+    public FileStorageBackend(String dataFile, String archiveDirectory) {
+        this.dataFile = dataFile;
+        this.closedOrders = new ArchiveStore<>(archiveDirectory + File.separator + "orders", Order.class, ARCHIVE_CACHE_SIZE);
+        this.retiredMenu = new ArchiveStore<>(archiveDirectory + File.separator + "menu", MenuItem.class, ARCHIVE_CACHE_SIZE);
+        this.inactiveServers = new ArchiveStore<>(archiveDirectory + File.separator + "servers", Server.class, ARCHIVE_CACHE_SIZE);
+    }
+
+    @Override
+    public synchronized void save(List<Table> tables, List<Server> servers, List<MenuItem> menu) throws IOException {
+        lookupCopy = null; // Read the new file on the next lookup
+        Path file = Paths.get(dataFile).toAbsolutePath();
+        // Write to a temporary file first so a crash never leaves a half-written data file
+        Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeObject(tables);
+            out.writeObject(servers);
+            out.writeObject(menu);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // A missing file is reported as NoSuchFileException, which tells callers nothing has been saved yet
+    @Override
+    @SuppressWarnings("unchecked")
+    public Snapshot load() throws IOException {
+        try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(Paths.get(dataFile))))) {
+            List<Table> tables = (List<Table>) in.readObject();
+            List<Server> servers = (List<Server>) in.readObject();
+            List<MenuItem> menu = (List<MenuItem>) in.readObject();
+            return new Snapshot(tables, servers, menu);
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Restaurant data in " + dataFile + " could not be read.", e);
+        }
+    }
+
+    // The live data is one serialized stream, so single lookups share one in-memory copy of the whole file
+
+    @Override
+    public Table findTable(int tableNumber) throws IOException {
+        for (Table table : lookupCopy().getTables()) {
+            if (table.getTableNumber() == tableNumber) {
+                return table;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Server findServer(String name) throws IOException {
+        for (Server server : lookupCopy().getServers()) {
+            if (server.getName().equalsIgnoreCase(name)) {
+                return server;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public MenuItem findMenuItem(String name) throws IOException {
+        for (MenuItem item : lookupCopy().getMenu()) {
+            if (item.getName().equalsIgnoreCase(name)) {
+                return item;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void archiveOrder(Order order) throws IOException {
+        closedOrders.put(order.getOrderId(), order);
+    }
+
+    @Override
+    public Order findOrder(String orderId) throws IOException {
+        return closedOrders.get(orderId);
+    }
+
+    @Override
+    public List<Order> findOrders(int tableNumber, LocalDateTime from, LocalDateTime to) throws IOException {
+        List<Order> orders = new ArrayList<>();
+        closedOrders.forEach(order -> {
+            LocalDateTime closed = order.getClosedTime();
+            if (order.getTableNumber() == tableNumber && closed != null
+                    && !closed.isBefore(from) && closed.isBefore(to)) {
+                orders.add(order);
+            }
+        });
+        orders.sort((o1, o2) -> o1.getClosedTime().compareTo(o2.getClosedTime()));
+        return orders;
+    }
+
+    @Override
+    public void forEachOrder(Consumer<? super Order> action) throws IOException {
+        closedOrders.forEach(action);
+    }
+
+    @Override
+    public Map<String, Long> countItemsOrdered() throws IOException {
+        Map<String, Long> counts = new HashMap<>();
+        closedOrders.forEach(order -> {
+            for (MenuItem item : order.getItems()) {
+                counts.merge(item.getName(), 1L, Long::sum);
+            }
+        });
+        return counts;
+    }
+
+    @Override
+    public synchronized void archiveMenuItem(MenuItem item) throws IOException {
+        retiredMenu.put(item.getName(), item);
+        Snapshot live = liveData();
+        if (live != null && live.getMenu().removeIf(saved -> saved.getName().equals(item.getName()))) {
+            save(live.getTables(), live.getServers(), live.getMenu());
+        }
+    }
+
+    @Override
+    public MenuItem findRetiredMenuItem(String name) throws IOException {
+        return retiredMenu.get(name);
+    }
+
+    @Override
+    public synchronized void archiveServer(Server server) throws IOException {
+        inactiveServers.put(server.getName(), server);
+        Snapshot live = liveData();
+        if (live != null && live.getServers().removeIf(saved -> saved.getName().equals(server.getName()))) {
+            for (Table table : live.getTables()) {
+                Server assigned = table.getAssignedServer();
+                if (assigned != null && assigned.getName().equals(server.getName())) {
+                    table.setAssignedServer(null);
+                }
+            }
+            save(live.getTables(), live.getServers(), live.getMenu());
+        }
+    }
+
+    @Override
+    public Server findInactiveServer(String name) throws IOException {
+        return inactiveServers.get(name);
+    }
+
+    // A fresh copy of the data file to change and save back, or null if nothing has been saved
+    private Snapshot liveData() throws IOException {
+        return new File(dataFile).exists() ? load() : null;
+    }
+
+    // Reads the data file only if it has changed since the copy was made
+    private synchronized Snapshot lookupCopy() throws IOException {
+        File file = new File(dataFile);
+        if (!file.exists()) {
+            return new Snapshot(new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+        }
+        long modified = file.lastModified();
+        long length = file.length();
+        if (lookupCopy == null || modified != lookupCopyModified || length != lookupCopyLength) {
+            lookupCopy = load();
+            lookupCopyModified = modified;
+            lookupCopyLength = length;
+        }
+        return lookupCopy;
+    }
+
+    @Override
+    public void close() {
+        // Every file is opened and closed per call, so there is nothing to release
+    }
+}
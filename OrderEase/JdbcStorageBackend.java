@@ -0,0 +1,580 @@
+// Filename JdbcStorageBackend.java
+// Written by Anthony Colley
+// Updated on 10/18/2026
+// Final Project - Stores Restaurant Data in an Embedded Database
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * The JdbcStorageBackend class stores restaurant data in an embedded, file-based database such
+ * as H2 (jdbc:h2:./restaurant) or SQLite (jdbc:sqlite:restaurant.db). The database driver only
+ * needs to be on the classpath; no database server is required.
+ *
+ * <p>Every table, server, menu item, and order is its own row, so single lookups and reports
+ * run as indexed queries instead of loading the whole restaurant. Saves update or insert the
+ * rows of the records passed in, in batched prepared statements inside a single transaction,
+ * and leave every other row alone, so terminals sharing one database do not overwrite each
+ * other's tables. Menu items and servers leave the live rows when they are archived, in the
+ * same transaction that adds them to the history.
+ */
+public class JdbcStorageBackend implements StorageBackend {
+    private static final int BATCH_SIZE = 500;          // Rows sent to the database per batch
+    private static final int ORDER_CACHE_SIZE = 256;    // Closed orders kept in memory
+    // Live names match ignoring case, as Restaurant does. H2 cannot index LOWER(name), and the
+    // live menu and staff are small enough to scan.
+    private static final String LIVE_NAME_MATCH = "LOWER(name) = LOWER(?)";
+
+    private static final String[] SCHEMA = {
+        "CREATE TABLE IF NOT EXISTS menu_items (name VARCHAR(255) PRIMARY KEY, description VARCHAR(1000), "
+                + "price DOUBLE PRECISION, available BOOLEAN)",
+        "CREATE TABLE IF NOT EXISTS retired_menu_items (name VARCHAR(255) PRIMARY KEY, description VARCHAR(1000), "
+                + "price DOUBLE PRECISION, available BOOLEAN)",
+        "CREATE TABLE IF NOT EXISTS servers (name VARCHAR(255) PRIMARY KEY, available BOOLEAN)",
+        "CREATE TABLE IF NOT EXISTS inactive_servers (name VARCHAR(255) PRIMARY KEY, available BOOLEAN)",
+        "CREATE TABLE IF NOT EXISTS dining_tables (table_number INTEGER PRIMARY KEY, server_name VARCHAR(255), "
+                + "seating_time TIMESTAMP, order_id VARCHAR(64))",
+        "CREATE TABLE IF NOT EXISTS table_items (table_number INTEGER, line_number INTEGER, item_name VARCHAR(255), "
+                + "description VARCHAR(1000), price DOUBLE PRECISION, available BOOLEAN, seat INTEGER, "
+                + "PRIMARY KEY (table_number, line_number))",
+        "CREATE TABLE IF NOT EXISTS closed_orders (order_id VARCHAR(64) PRIMARY KEY, table_number INTEGER, "
+                + "closed_time TIMESTAMP)",
+        "CREATE TABLE IF NOT EXISTS closed_order_items (order_id VARCHAR(64), line_number INTEGER, "
+                + "item_name VARCHAR(255), description VARCHAR(1000), price DOUBLE PRECISION, available BOOLEAN, "
+                + "seat INTEGER, PRIMARY KEY (order_id, line_number))",
+        "CREATE INDEX IF NOT EXISTS idx_closed_orders_table_time ON closed_orders (table_number, closed_time)",
+        "CREATE INDEX IF NOT EXISTS idx_closed_order_items_name ON closed_order_items (item_name)"
+    };
+
+    private final Connection connection;               // The connection to the embedded database
+    private final LruCache<String, Order> orderCache;  // Recently read closed orders
+
+    /**
+     * Constructor to open (and if needed create) the database.
+     *
+     * @param jdbcUrl The JDBC URL of the embedded database.
+     * @throws IOException If the database cannot be opened or its tables cannot be created.
+     */
+    public JdbcStorageBackend(String jdbcUrl) throws IOException {
+        try {
+            this.connection = DriverManager.getConnection(jdbcUrl);
+            try (Statement statement = connection.createStatement()) {
+                for (String sql : SCHEMA) {
+                    statement.executeUpdate(sql);
+                }
+            }
+        } catch (SQLException e) {
+            throw new IOException("Could not open database " + jdbcUrl + ".", e);
+        }
+        this.orderCache = new LruCache<>(ORDER_CACHE_SIZE);
+    }
+
+    @Override
+    public synchronized void save(List<Table> tables, List<Server> servers, List<MenuItem> menu) throws IOException {
+        try {
+            connection.setAutoCommit(false);
+            upsert(menu, "UPDATE menu_items SET description = ?, price = ?, available = ? WHERE name = ?",
+                    "INSERT INTO menu_items (description, price, available, name) VALUES (?, ?, ?, ?)",
+                    (statement, item) -> {
+                        statement.setString(1, item.getDescription());
+                        statement.setDouble(2, item.getPrice());
+                        statement.setBoolean(3, item.isAvailable());
+                        statement.setString(4, item.getName());
+                    });
+            upsert(servers, "UPDATE servers SET available = ? WHERE name = ?",
+                    "INSERT INTO servers (available, name) VALUES (?, ?)",
+                    (statement, server) -> {
+                        statement.setBoolean(1, server.isAvailable());
+                        statement.setString(2, server.getName());
+                    });
+            upsert(tables, "UPDATE dining_tables SET server_name = ?, seating_time = ?, order_id = ? WHERE table_number = ?",
+                    "INSERT INTO dining_tables (server_name, seating_time, order_id, table_number) VALUES (?, ?, ?, ?)",
+                    (statement, table) -> {
+                        Server server = table.getAssignedServer();
+                        statement.setString(1, server == null ? null : server.getName());
+                        statement.setTimestamp(2, toTimestamp(table.getSeatingTime()));
+                        statement.setString(3, table.getCurrentOrder().getOrderId());
+                        statement.setInt(4, table.getTableNumber());
+                    });
+
+            // A saved table's current order replaces whatever was saved for that table before
+            try (PreparedStatement deleteItems = connection.prepareStatement("DELETE FROM table_items WHERE table_number = ?");
+                 PreparedStatement insertItem = connection.prepareStatement(
+                    "INSERT INTO table_items (table_number, line_number, item_name, description, price, available, seat) "
+                            + "VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+                int pendingDeletes = 0;
+                for (Table table : tables) {
+                    deleteItems.setInt(1, table.getTableNumber());
+                    pendingDeletes = addToBatch(deleteItems, pendingDeletes);
+                }
+                deleteItems.executeBatch();
+
+                int pendingItems = 0;
+                for (Table table : tables) {
+                    Order order = table.getCurrentOrder();
+                    for (int i = 0; i < order.getItems().size(); i++) {
+                        insertItem.setInt(1, table.getTableNumber());
+                        insertItem.setInt(2, i);
+                        bindMenuItem(insertItem, 3, order.getItems().get(i));
+                        insertItem.setInt(7, order.getSeat(i));
+                        pendingItems = addToBatch(insertItem, pendingItems);
+                    }
+                }
+                insertItem.executeBatch();
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            rollback();
+            throw new IOException("Could not save restaurant data.", e);
+        } finally {
+            restoreAutoCommit();
+        }
+    }
+
+    @Override
+    public synchronized Snapshot load() throws IOException {
+        try {
+            List<MenuItem> menu = new ArrayList<>();
+            Map<String, MenuItem> menuByName = new HashMap<>();
+            try (Statement statement = connection.createStatement();
+                 ResultSet rows = statement.executeQuery(
+                         "SELECT name, description, price, available FROM menu_items ORDER BY name")) {
+                while (rows.next()) {
+                    MenuItem item = readMenuItem(rows, 1);
+                    menu.add(item);
+                    menuByName.put(item.getName(), item);
+                }
+            }
+
+            List<Server> servers = new ArrayList<>();
+            Map<String, Server> serversByName = new HashMap<>();
+            try (Statement statement = connection.createStatement();
+                 ResultSet rows = statement.executeQuery("SELECT name, available FROM servers ORDER BY name")) {
+                while (rows.next()) {
+                    Server server = readServer(rows);
+                    servers.add(server);
+                    serversByName.put(server.getName(), server);
+                }
+            }
+
+            Map<Integer, Table> tablesByNumber = new LinkedHashMap<>();
+            try (Statement statement = connection.createStatement();
+                 ResultSet rows = statement.executeQuery(
+                         "SELECT table_number, server_name, seating_time, order_id FROM dining_tables ORDER BY table_number")) {
+                while (rows.next()) {
+                    Table table = readTable(rows);
+                    table.setAssignedServer(serversByName.get(rows.getString(2)));
+                    tablesByNumber.put(table.getTableNumber(), table);
+                }
+            }
+            try (Statement statement = connection.createStatement();
+                 ResultSet rows = statement.executeQuery(
+                         "SELECT table_number, item_name, description, price, available, seat FROM table_items "
+                                 + "ORDER BY table_number, line_number")) {
+                while (rows.next()) {
+                    Table table = tablesByNumber.get(rows.getInt(1));
+                    if (table != null) {
+                        // Share the menu's MenuItem when the item is still on the menu
+                        MenuItem item = menuByName.get(rows.getString(2));
+                        table.getCurrentOrder().addItem(item != null ? item : readMenuItem(rows, 2), rows.getInt(6));
+                    }
+                }
+            }
+            return new Snapshot(new ArrayList<>(tablesByNumber.values()), servers, menu);
+        } catch (SQLException e) {
+            throw new IOException("Could not load restaurant data.", e);
+        }
+    }
+
+    @Override
+    public synchronized Table findTable(int tableNumber) throws IOException {
+        try {
+            Table table;
+            String serverName;
+            try (PreparedStatement query = connection.prepareStatement(
+                    "SELECT table_number, server_name, seating_time, order_id FROM dining_tables WHERE table_number = ?")) {
+                query.setInt(1, tableNumber);
+                try (ResultSet rows = query.executeQuery()) {
+                    if (!rows.next()) {
+                        return null;
+                    }
+                    table = readTable(rows);
+                    serverName = rows.getString(2);
+                }
+            }
+            if (serverName != null) {
+                table.setAssignedServer(findServer(serverName));
+            }
+            try (PreparedStatement query = connection.prepareStatement(
+                    "SELECT item_name, description, price, available, seat FROM table_items "
+                            + "WHERE table_number = ? ORDER BY line_number")) {
+                query.setInt(1, tableNumber);
+                try (ResultSet rows = query.executeQuery()) {
+                    while (rows.next()) {
+                        table.getCurrentOrder().addItem(readMenuItem(rows, 1), rows.getInt(5));
+                    }
+                }
+            }
+            return table;
+        } catch (SQLException e) {
+            throw new IOException("Could not look up table " + tableNumber + ".", e);
+        }
+    }
+
+    @Override
+    public synchronized Server findServer(String name) throws IOException {
+        return findServerIn("servers", LIVE_NAME_MATCH, name);
+    }
+
+    @Override
+    public synchronized MenuItem findMenuItem(String name) throws IOException {
+        return findMenuItemIn("menu_items", LIVE_NAME_MATCH, name);
+    }
+
+    @Override
+    public synchronized void archiveOrder(Order order) throws IOException {
+        try {
+            connection.setAutoCommit(false);
+            try (PreparedStatement insertOrder = connection.prepareStatement(
+                    "INSERT INTO closed_orders (order_id, table_number, closed_time) VALUES (?, ?, ?)");
+                 PreparedStatement insertItem = connection.prepareStatement(
+                    "INSERT INTO closed_order_items (order_id, line_number, item_name, description, price, available, seat) "
+                            + "VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+                insertOrder.setString(1, order.getOrderId());
+                insertOrder.setInt(2, order.getTableNumber());
+                insertOrder.setTimestamp(3, toTimestamp(order.getClosedTime()));
+                insertOrder.executeUpdate();
+
+                int pending = 0;
+                for (int i = 0; i < order.getItems().size(); i++) {
+                    insertItem.setString(1, order.getOrderId());
+                    insertItem.setInt(2, i);
+                    bindMenuItem(insertItem, 3, order.getItems().get(i));
+                    insertItem.setInt(7, order.getSeat(i));
+                    pending = addToBatch(insertItem, pending);
+                }
+                insertItem.executeBatch();
+            }
+            connection.commit();
+            orderCache.put(order.getOrderId(), order);
+        } catch (SQLException e) {
+            rollback();
+            throw new IOException("Could not archive order " + order.getOrderId() + ".", e);
+        } finally {
+            restoreAutoCommit();
+        }
+    }
+
+    @Override
+    public synchronized Order findOrder(String orderId) throws IOException {
+        Order cached = orderCache.get(orderId);
+        if (cached != null) {
+            return cached;
+        }
+        try {
+            Order order;
+            try (PreparedStatement query = connection.prepareStatement(
+                    "SELECT order_id, table_number, closed_time FROM closed_orders WHERE order_id = ?")) {
+                query.setString(1, orderId);
+                try (ResultSet rows = query.executeQuery()) {
+                    if (!rows.next()) {
+                        return null;
+                    }
+                    order = readOrder(rows);
+                }
+            }
+            try (PreparedStatement query = connection.prepareStatement(
+                    "SELECT item_name, description, price, available, seat FROM closed_order_items "
+                            + "WHERE order_id = ? ORDER BY line_number")) {
+                query.setString(1, orderId);
+                try (ResultSet rows = query.executeQuery()) {
+                    while (rows.next()) {
+                        order.addItem(readMenuItem(rows, 1), rows.getInt(5));
+                    }
+                }
+            }
+            orderCache.put(orderId, order);
+            return order;
+        } catch (SQLException e) {
+            throw new IOException("Could not look up order " + orderId + ".", e);
+        }
+    }
+
+    @Override
+    public synchronized List<Order> findOrders(int tableNumber, LocalDateTime from, LocalDateTime to) throws IOException {
+        List<Order> orders = new ArrayList<>();
+        try (PreparedStatement query = connection.prepareStatement(
+                "SELECT o.order_id, o.table_number, o.closed_time, i.item_name, i.description, i.price, i.available, i.seat "
+                        + "FROM closed_orders o LEFT JOIN closed_order_items i ON i.order_id = o.order_id "
+                        + "WHERE o.table_number = ? AND o.closed_time >= ? AND o.closed_time < ? "
+                        + "ORDER BY o.closed_time, o.order_id, i.line_number")) {
+            query.setInt(1, tableNumber);
+            query.setTimestamp(2, toTimestamp(from));
+            query.setTimestamp(3, toTimestamp(to));
+            try (ResultSet rows = query.executeQuery()) {
+                readOrders(rows, orders::add);
+            }
+        } catch (SQLException e) {
+            throw new IOException("Could not look up orders for table " + tableNumber + ".", e);
+        }
+        return orders;
+    }
+
+    @Override
+    public synchronized void forEachOrder(Consumer<? super Order> action) throws IOException {
+        try (PreparedStatement query = connection.prepareStatement(
+                "SELECT o.order_id, o.table_number, o.closed_time, i.item_name, i.description, i.price, i.available, i.seat "
+                        + "FROM closed_orders o LEFT JOIN closed_order_items i ON i.order_id = o.order_id "
+                        + "ORDER BY o.order_id, i.line_number")) {
+            query.setFetchSize(BATCH_SIZE);
+            try (ResultSet rows = query.executeQuery()) {
+                readOrders(rows, action);
+            }
+        } catch (SQLException e) {
+            throw new IOException("Could not read order history.", e);
+        }
+    }
+
+    @Override
+    public synchronized Map<String, Long> countItemsOrdered() throws IOException {
+        Map<String, Long> counts = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery(
+                     "SELECT item_name, COUNT(*) FROM closed_order_items GROUP BY item_name")) {
+            while (rows.next()) {
+                counts.put(rows.getString(1), rows.getLong(2));
+            }
+        } catch (SQLException e) {
+            throw new IOException("Could not count items ordered.", e);
+        }
+        return counts;
+    }
+
+    @Override
+    public synchronized void archiveMenuItem(MenuItem item) throws IOException {
+        try {
+            connection.setAutoCommit(false);
+            try (PreparedStatement delete = connection.prepareStatement("DELETE FROM retired_menu_items WHERE name = ?");
+                 PreparedStatement insert = connection.prepareStatement(
+                         "INSERT INTO retired_menu_items (name, description, price, available) VALUES (?, ?, ?, ?)");
+                 PreparedStatement deleteLive = connection.prepareStatement("DELETE FROM menu_items WHERE name = ?")) {
+                delete.setString(1, item.getName());
+                delete.executeUpdate();
+                bindMenuItem(insert, 1, item);
+                insert.executeUpdate();
+                deleteLive.setString(1, item.getName());
+                deleteLive.executeUpdate();
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            rollback();
+            throw new IOException("Could not archive menu item " + item.getName() + ".", e);
+        } finally {
+            restoreAutoCommit();
+        }
+    }
+
+    @Override
+    public synchronized MenuItem findRetiredMenuItem(String name) throws IOException {
+        return findMenuItemIn("retired_menu_items", "name = ?", name);
+    }
+
+    @Override
+    public synchronized void archiveServer(Server server) throws IOException {
+        try {
+            connection.setAutoCommit(false);
+            try (PreparedStatement delete = connection.prepareStatement("DELETE FROM inactive_servers WHERE name = ?");
+                 PreparedStatement insert = connection.prepareStatement(
+                         "INSERT INTO inactive_servers (name, available) VALUES (?, ?)")) {
+                delete.setString(1, server.getName());
+                delete.executeUpdate();
+                insert.setString(1, server.getName());
+                insert.setBoolean(2, server.isAvailable());
+                insert.executeUpdate();
+            }
+            try (PreparedStatement unassign = connection.prepareStatement(
+                         "UPDATE dining_tables SET server_name = NULL WHERE server_name = ?");
+                 PreparedStatement deleteLive = connection.prepareStatement("DELETE FROM servers WHERE name = ?")) {
+                unassign.setString(1, server.getName());
+                unassign.executeUpdate();
+                deleteLive.setString(1, server.getName());
+                deleteLive.executeUpdate();
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            rollback();
+            throw new IOException("Could not archive server " + server.getName() + ".", e);
+        } finally {
+            restoreAutoCommit();
+        }
+    }
+
+    @Override
+    public synchronized Server findInactiveServer(String name) throws IOException {
+        return findServerIn("inactive_servers", "name = ?", name);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            throw new IOException("Could not close database.", e);
+        }
+    }
+
+    // Table names below are constants chosen by this class, never user input
+
+    private MenuItem findMenuItemIn(String tableName, String match, String name) throws IOException {
+        try (PreparedStatement query = connection.prepareStatement(
+                "SELECT name, description, price, available FROM " + tableName + " WHERE " + match)) {
+            query.setString(1, name);
+            try (ResultSet rows = query.executeQuery()) {
+                return rows.next() ? readMenuItem(rows, 1) : null;
+            }
+        } catch (SQLException e) {
+            throw new IOException("Could not look up menu item " + name + ".", e);
+        }
+    }
+
+    private Server findServerIn(String tableName, String match, String name) throws IOException {
+        try (PreparedStatement query = connection.prepareStatement(
+                "SELECT name, available FROM " + tableName + " WHERE " + match)) {
+            query.setString(1, name);
+            try (ResultSet rows = query.executeQuery()) {
+                return rows.next() ? readServer(rows) : null;
+            }
+        } catch (SQLException e) {
+            throw new IOException("Could not look up server " + name + ".", e);
+        }
+    }
+
+    // Builds orders from rows of a closed_orders / closed_order_items join, passing each one on as it completes
+    private void readOrders(ResultSet rows, Consumer<? super Order> action) throws SQLException {
+        Order current = null;
+        while (rows.next()) {
+            String orderId = rows.getString(1);
+            if (current == null || !current.getOrderId().equals(orderId)) {
+                if (current != null) {
+                    action.accept(current);
+                }
+                current = readOrder(rows);
+            }
+            if (rows.getString(4) != null) {
+                current.addItem(readMenuItem(rows, 4), rows.getInt(8));
+            }
+        }
+        if (current != null) {
+            action.accept(current);
+        }
+    }
+
+    // Updates the row of each record, then inserts the ones that had no row yet
+    private <T> void upsert(List<T> records, String updateSql, String insertSql, RowBinder<T> binder) throws SQLException {
+        try (PreparedStatement update = connection.prepareStatement(updateSql);
+             PreparedStatement insert = connection.prepareStatement(insertSql)) {
+            for (int start = 0; start < records.size(); start += BATCH_SIZE) {
+                List<T> chunk = records.subList(start, Math.min(records.size(), start + BATCH_SIZE));
+                for (T record : chunk) {
+                    binder.bind(update, record);
+                    update.addBatch();
+                }
+                int[] updated = update.executeBatch();
+                int missing = 0;
+                for (int i = 0; i < chunk.size(); i++) {
+                    if (updated[i] == 0) {
+                        binder.bind(insert, chunk.get(i));
+                        insert.addBatch();
+                        missing++;
+                    }
+                }
+                if (missing > 0) {
+                    insert.executeBatch();
+                }
+            }
+        }
+    }
+
+    private int addToBatch(PreparedStatement statement, int pending) throws SQLException {
+        statement.addBatch();
+        if (++pending >= BATCH_SIZE) {
+            statement.executeBatch();
+            return 0;
+        }
+        return pending;
+    }
+
+    private static void bindMenuItem(PreparedStatement statement, int first, MenuItem item) throws SQLException {
+        statement.setString(first, item.getName());
+        statement.setString(first + 1, item.getDescription());
+        statement.setDouble(first + 2, item.getPrice());
+        statement.setBoolean(first + 3, item.isAvailable());
+    }
+
+    private static MenuItem readMenuItem(ResultSet rows, int first) throws SQLException {
+        return new MenuItem(rows.getString(first), rows.getString(first + 1),
+                rows.getDouble(first + 2), rows.getBoolean(first + 3));
+    }
+
+    private static Server readServer(ResultSet rows) throws SQLException {
+        Server server = new Server(rows.getString(1));
+        server.setAvailable(rows.getBoolean(2));
+        return server;
+    }
+
+    private static Table readTable(ResultSet rows) throws SQLException {
+        Table table = new Table(rows.getInt(1));
+        table.setSeatingTime(toLocalDateTime(rows.getTimestamp(3)));
+        table.setCurrentOrder(new Order(rows.getString(4), table.getTableNumber(), null));
+        return table;
+    }
+
+    private static Order readOrder(ResultSet rows) throws SQLException {
+        return new Order(rows.getString(1), rows.getInt(2), toLocalDateTime(rows.getTimestamp(3)));
+    }
+
+    private static Timestamp toTimestamp(LocalDateTime time) {
+        return time == null ? null : Timestamp.valueOf(time);
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+
+    private void rollback() {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            // The original failure is more useful to the caller than the rollback failure
+        }
+    }
+
+    private void restoreAutoCommit() {
+        try {
+            connection.setAutoCommit(true);
+        } catch (SQLException e) {
+            // The connection is unusable; the next call will report the problem
+        }
+    }
+
+    /**
+     * The RowBinder interface sets a record's columns on an UPDATE or the matching INSERT,
+     * which list the columns in the same order with the key last.
+     */
+    private interface RowBinder<T> {
+        void bind(PreparedStatement statement, T record) throws SQLException;
+    }
+}
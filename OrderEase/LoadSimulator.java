@@ -0,0 +1,461 @@
+// Filename LoadSimulator.java
+// Written by Anthony Colley
+// Updated on 10/18/2026
+// Final Project - Headless Dinner Rush Simulator for Capacity Planning
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The LoadSimulator class replays a dinner rush against the restaurant model without the GUI.
+ * Parties arrive at each venue at a configurable rate, wait for a free table and a server with
+ * room in their section, order for every guest, dine, and settle their check through the
+ * SettlementEngine. When the rush is over it reports throughput, latency percentiles, and heap
+ * and garbage collection behavior.
+ *
+ * <p>Options are passed as name=value pairs, for example:
+ * <pre>java LoadSimulator venues=4 tables=30 servers=6 section=5 dwell=800 arrivals=40 duration=60 threads=0</pre>
+ * A thread count of 0 uses virtual threads when the JDK supports them. The dwell time is the
+ * average time in milliseconds from seating to asking for the check, so together with the
+ * number of tables and servers it sets how many parties each venue can turn over per second.
+ */
+public class LoadSimulator {
+    private static final BigDecimal TAX_RATE = new BigDecimal("8.25");  // Sales tax percentage
+    private static final BigDecimal TIP_PERCENT = new BigDecimal(18);   // Tip left by every party
+    private static final int DEFAULT_PLATFORM_THREADS = 200;           // Pool size when virtual threads are unavailable
+
+    private final int venues;              // Number of restaurants in the simulation
+    private final int tablesPerVenue;      // Tables in each restaurant
+    private final int serversPerVenue;     // Servers working in each restaurant
+    private final int tablesPerServer;     // Most tables one server looks after at a time
+    private final long dwellMillis;        // Average time from seating to asking for the check
+    private final double arrivalsPerSecond; // Parties arriving at each restaurant per second
+    private final int durationSeconds;     // How long parties keep arriving
+    private final int threads;             // Worker threads (0 = virtual threads)
+    private final long maxWaitMillis;      // How long a party waits for a table before leaving
+    private final double paymentFailureRate; // Share of payment requests that time out
+
+    private final List<Venue> venueList = new ArrayList<>();
+    private final LatencyRecorder seatLatency = new LatencyRecorder();
+    private final LatencyRecorder orderLatency = new LatencyRecorder();
+    private final LatencyRecorder settleLatency = new LatencyRecorder();
+    private final LatencyRecorder visitLatency = new LatencyRecorder();
+    private final AtomicLong partiesArrived = new AtomicLong();
+    private final AtomicLong partiesServed = new AtomicLong();
+    private final AtomicLong partiesUnsettled = new AtomicLong();
+    private final AtomicLong partiesTurnedAway = new AtomicLong();
+    private final AtomicLong itemsOrdered = new AtomicLong();
+    private final AtomicLong checksSettled = new AtomicLong();
+    private final AtomicLong paymentFailures = new AtomicLong();
+
+    /**
+     * Constructor to initialize the simulator from name=value options.
+     *
+     * @param options The simulation options.
+     */
+    public LoadSimulator(Map<String, String> options) {
+        venues = Integer.parseInt(options.getOrDefault("venues", "2"));
+        tablesPerVenue = Integer.parseInt(options.getOrDefault("tables", "20"));
+        serversPerVenue = Integer.parseInt(options.getOrDefault("servers", "4"));
+        tablesPerServer = Integer.parseInt(options.getOrDefault("section", "5"));
+        dwellMillis = Long.parseLong(options.getOrDefault("dwell", "500"));
+        arrivalsPerSecond = Double.parseDouble(options.getOrDefault("arrivals", "50"));
+        durationSeconds = Integer.parseInt(options.getOrDefault("duration", "30"));
+        threads = Integer.parseInt(options.getOrDefault("threads", "0"));
+        maxWaitMillis = Long.parseLong(options.getOrDefault("maxWait", "2000"));
+        paymentFailureRate = Double.parseDouble(options.getOrDefault("paymentFailureRate", "0.0"));
+    }
+
+    /**
+     * Runs the simulation and prints a report.
+     *
+     * @throws InterruptedException If the simulation is interrupted while waiting for parties to finish.
+     */
+    public void run() throws InterruptedException {
+        for (int i = 1; i <= venues; i++) {
+            venueList.add(new Venue(i));
+        }
+
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long heapBefore = memory.getHeapMemoryUsage().getUsed();
+        long[] gcBefore = gcTotals();
+        HeapSampler heapSampler = new HeapSampler(memory);
+        heapSampler.start();
+
+        ExecutorService executor = newExecutor();
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(durationSeconds);
+        double meanGapNanos = TimeUnit.SECONDS.toNanos(1) / (arrivalsPerSecond * venues);
+
+        // Parties arrive as a Poisson process; latency is measured from the scheduled arrival
+        // so that a backed-up executor shows up in the numbers instead of hiding it
+        long nextArrival = start;
+        while (nextArrival < end) {
+            long wait = nextArrival - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Venue venue = venueList.get(ThreadLocalRandom.current().nextInt(venueList.size()));
+            long arrival = nextArrival;
+            partiesArrived.incrementAndGet();
+            executor.execute(() -> visit(venue, arrival));
+            nextArrival += (long) (-Math.log(1.0 - ThreadLocalRandom.current().nextDouble()) * meanGapNanos);
+        }
+
+        executor.shutdown();
+        // Every party still running has at most its wait for a table and one dwell left; allow that plus a margin
+        long timeoutMillis = maxWaitMillis + dwellMillis * 3 / 2 + TimeUnit.MINUTES.toMillis(5);
+        boolean complete = executor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS);
+        long elapsed = System.nanoTime() - start;
+        if (!complete) {
+            executor.shutdownNow(); // Interrupts parties stuck waiting so the simulator can exit
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        }
+        heapSampler.stopSampling();
+
+        long[] gcAfter = gcTotals();
+        long heapAfter = memory.getHeapMemoryUsage().getUsed();
+        printReport(complete, elapsed, heapBefore, heapAfter, heapSampler.getPeak(), gcAfter[0] - gcBefore[0], gcAfter[1] - gcBefore[1]);
+    }
+
+    // A single party's visit: wait for a table and a server, order for each guest, dine, then settle the check
+    private void visit(Venue venue, long arrival) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long deadline = arrival + TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        Table table;
+        Server server = null;
+        try {
+            table = venue.freeTables.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            if (table != null) {
+                server = venue.assignServer(table, deadline);
+                if (server == null) {
+                    venue.freeTables.add(table); // No server could take the table in time
+                    table = null;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (table == null) {
+            partiesTurnedAway.incrementAndGet();
+            return;
+        }
+
+        try {
+            long seated = System.nanoTime();
+            seatLatency.record(seated - arrival);
+            table.setSeatingTime(LocalDateTime.now());
+
+            int guests = 1 + random.nextInt(6);
+            int items = 0;
+            long orderStart = System.nanoTime();
+            for (int seat = 1; seat <= guests; seat++) {
+                int courses = 1 + random.nextInt(3);
+                for (int c = 0; c < courses; c++) {
+                    MenuItem item = venue.menu.get(random.nextInt(venue.menu.size()));
+                    if (item.isAvailable()) {
+                        table.getCurrentOrder().addItem(item, seat);
+                        items++;
+                    }
+                }
+            }
+            orderLatency.record(System.nanoTime() - orderStart);
+            itemsOrdered.addAndGet(items);
+
+            // Dine for between half and one and a half times the average dwell time
+            long dwellNanos = TimeUnit.MILLISECONDS.toNanos(dwellMillis);
+            LockSupport.parkNanos(dwellNanos / 2 + random.nextLong(dwellNanos + 1));
+            if (Thread.currentThread().isInterrupted()) {
+                table.getCurrentOrder().clearOrder();
+                return; // Stopped by shutdownNow(), so the party is reported as unfinished
+            }
+
+            long settleStart = System.nanoTime();
+            boolean settled = true;
+            if (items > 0) {
+                Check check = venue.settlementEngine.createCheck(table);
+                List<Check> checks = random.nextBoolean()
+                        ? venue.settlementEngine.splitBySeat(check)
+                        : venue.settlementEngine.splitEvenly(check, guests);
+                for (Check guestCheck : checks) {
+                    venue.settlementEngine.applyTipPercent(guestCheck, TIP_PERCENT);
+                    try {
+                        venue.settlementEngine.payBalance(guestCheck);
+                        checksSettled.incrementAndGet();
+                    } catch (PaymentException e) {
+                        paymentFailures.incrementAndGet();
+                        settled = false;
+                    }
+                }
+            }
+            settleLatency.record(System.nanoTime() - settleStart);
+
+            table.getCurrentOrder().clearOrder();
+            if (Thread.currentThread().isInterrupted()) {
+                return; // Stopped by shutdownNow() while paying
+            }
+            if (settled) {
+                partiesServed.incrementAndGet();
+            } else {
+                partiesUnsettled.incrementAndGet(); // The party left with checks still unpaid
+            }
+            visitLatency.record(System.nanoTime() - arrival);
+        } finally {
+            venue.releaseServer(server);
+            venue.freeTables.add(table);
+        }
+    }
+
+    private ExecutorService newExecutor() {
+        if (threads <= 0) {
+            try {
+                // Virtual threads are only available on JDK 21 and later
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                return Executors.newFixedThreadPool(DEFAULT_PLATFORM_THREADS);
+            }
+        }
+        return Executors.newFixedThreadPool(threads);
+    }
+
+    private static long[] gcTotals() {
+        long count = 0;
+        long millis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+            millis += Math.max(0, gc.getCollectionTime());
+        }
+        return new long[] {count, millis};
+    }
+
+    private void printReport(boolean complete, long elapsedNanos, long heapBefore, long heapAfter, long heapPeak, long gcCount, long gcMillis) {
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        System.out.println("OrderEase dinner rush simulation");
+        if (!complete) {
+            long unfinished = partiesArrived.get() - partiesServed.get() - partiesUnsettled.get() - partiesTurnedAway.get();
+            System.out.printf("INCOMPLETE RUN: %d parties were still running when the simulator gave up waiting and stopped them.%n"
+                    + "The numbers below only cover parties that finished and are not comparable with complete runs.%n", unfinished);
+        }
+        System.out.printf("Venues: %d, tables/venue: %d, servers/venue: %d, tables/server: %d, dwell: %dms, arrivals/venue/s: %.1f, duration: %ds%n",
+                venues, tablesPerVenue, serversPerVenue, tablesPerServer, dwellMillis, arrivalsPerSecond, durationSeconds);
+        System.out.printf("Elapsed: %.2fs%n", seconds);
+        System.out.println();
+        System.out.printf("Parties arrived: %d, served: %d, left unsettled: %d, turned away: %d%n",
+                partiesArrived.get(), partiesServed.get(), partiesUnsettled.get(), partiesTurnedAway.get());
+        System.out.printf("Throughput: %.1f parties/s, %.1f items/s, %.1f checks/s%n",
+                partiesServed.get() / seconds, itemsOrdered.get() / seconds, checksSettled.get() / seconds);
+        System.out.printf("Payment failures: %d%n", paymentFailures.get());
+        System.out.println();
+        System.out.println("Latency (ms)         p50      p90      p99    p99.9      max");
+        seatLatency.print("Wait for table");
+        orderLatency.print("Place order");
+        settleLatency.print("Settle check");
+        visitLatency.print("Whole visit");
+        System.out.println();
+        System.out.printf("Heap used: before %.1f MB, after %.1f MB, peak %.1f MB%n",
+                heapBefore / 1048576.0, heapAfter / 1048576.0, heapPeak / 1048576.0);
+        System.out.printf("GC: %d collections, %d ms total%n", gcCount, gcMillis);
+    }
+
+    /**
+     * Main method to run the simulator from the command line.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] pair = arg.split("=", 2);
+            if (pair.length != 2) {
+                System.err.println("Ignoring option '" + arg + "' (expected name=value)");
+                continue;
+            }
+            options.put(pair[0], pair[1]);
+        }
+        new LoadSimulator(options).run();
+    }
+
+    /**
+     * The Venue class holds one simulated restaurant, the tables that are free to seat, and
+     * how many tables each server is looking after.
+     */
+    private class Venue {
+        private final int number;
+        private final Restaurant restaurant;
+        private final List<MenuItem> menu;
+        private final BlockingQueue<Table> freeTables;
+        private final SettlementEngine settlementEngine;
+        private final Map<Server, Integer> sections = new HashMap<>(); // Tables each server is looking after
+
+        private Venue(int number) {
+            this.number = number;
+            this.restaurant = new Restaurant();
+            String[] names = {"Burger", "Pizza", "Salad", "Pasta", "Steak", "Soup", "Tacos", "Wings",
+                    "Salmon", "Risotto", "Cake", "Coffee"};
+            for (int i = 0; i < names.length; i++) {
+                restaurant.addMenuItem(new MenuItem(names[i], names[i] + " of the house", 4.99 + i * 1.75, i != 2));
+            }
+            for (int i = 1; i <= serversPerVenue; i++) {
+                Server server = new Server("Server " + number + "-" + i);
+                restaurant.addServer(server);
+                sections.put(server, 0);
+            }
+            for (int i = 1; i <= tablesPerVenue; i++) {
+                restaurant.addTable(new Table(i));
+            }
+            this.menu = List.copyOf(restaurant.getMenu());
+            this.freeTables = new ArrayBlockingQueue<>(tablesPerVenue, false, restaurant.getTables());
+            this.settlementEngine = new SettlementEngine(new MockPaymentProcessor(paymentFailureRate, number), TAX_RATE);
+        }
+
+        // Assigns the table to the available server with the fewest tables, waiting until the deadline for one to free up
+        synchronized Server assignServer(Table table, long deadline) throws InterruptedException {
+            while (true) {
+                Server chosen = null;
+                for (Server server : restaurant.getServers()) {
+                    if (server.isAvailable() && (chosen == null || sections.get(server) < sections.get(chosen))) {
+                        chosen = server;
+                    }
+                }
+                if (chosen != null) {
+                    int load = sections.get(chosen) + 1;
+                    sections.put(chosen, load);
+                    chosen.setAvailable(load < tablesPerServer);
+                    table.setAssignedServer(chosen);
+                    return chosen;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return null;
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            }
+        }
+
+        synchronized void releaseServer(Server server) {
+            sections.put(server, sections.get(server) - 1);
+            server.setAvailable(true);
+            notifyAll();
+        }
+    }
+
+    /**
+     * The LatencyRecorder class counts latency samples from many threads in a fixed set of
+     * histogram buckets and reports percentiles. Each power of two is split into 64 buckets, so
+     * reported values are within about 1.6% of the real ones, and memory use stays the same no
+     * matter how many samples are recorded, which keeps the recorder out of the heap and GC numbers.
+     */
+    private static class LatencyRecorder {
+        private static final int SUB_BUCKET_BITS = 6;
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+        private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private final AtomicLong max = new AtomicLong();
+
+        void record(long nanos) {
+            long value = Math.max(0, nanos);
+            counts.incrementAndGet(bucketOf(value));
+            max.accumulateAndGet(value, Math::max);
+        }
+
+        void print(String label) {
+            long[] snapshot = new long[BUCKETS];
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                snapshot[i] = counts.get(i);
+                total += snapshot[i];
+            }
+            System.out.printf("%-16s %8.2f %8.2f %8.2f %8.2f %8.2f%n", label,
+                    percentile(snapshot, total, 50), percentile(snapshot, total, 90), percentile(snapshot, total, 99),
+                    percentile(snapshot, total, 99.9), max.get() / 1_000_000.0);
+        }
+
+        private double percentile(long[] snapshot, long total, double percent) {
+            if (total == 0) {
+                return 0.0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percent / 100.0 * total));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += snapshot[i];
+                if (seen >= rank) {
+                    return Math.min(highestValueIn(i), max.get()) / 1_000_000.0;
+                }
+            }
+            return max.get() / 1_000_000.0;
+        }
+
+        // Values below 64 get a bucket each; above that the top six bits below the leading one pick the bucket
+        private static int bucketOf(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+            int shift = exponent - SUB_BUCKET_BITS;
+            return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+        }
+
+        private static long highestValueIn(int bucket) {
+            if (bucket < SUB_BUCKETS) {
+                return bucket;
+            }
+            int shift = bucket / SUB_BUCKETS - 1;
+            long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+            return lowest + (1L << shift) - 1;
+        }
+    }
+
+    /**
+     * The HeapSampler class polls heap usage in the background to track the peak during the run.
+     */
+    private static class HeapSampler extends Thread {
+        private final MemoryMXBean memory;
+        private volatile boolean running = true;
+        private volatile long peak;
+
+        HeapSampler(MemoryMXBean memory) {
+            super("heap-sampler");
+            this.memory = memory;
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                peak = Math.max(peak, memory.getHeapMemoryUsage().getUsed());
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+
+        void stopSampling() throws InterruptedException {
+            running = false;
+            interrupt();
+            join();
+        }
+
+        long getPeak() {
+            return peak;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+// Filename LruCache.java
+// Written by Anthony Colley
+// Updated on 10/18/2026
+// Final Project - Fixed-Size Cache of Recently Used Records
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The LruCache class keeps a fixed number of recently used records in memory.
+ * When the cache is full, the record that was used least recently is dropped.
+ *
+ * @param <K> The type of key used to look up records.
+ * @param <V> The type of record being cached.
+ */
+public class LruCache<K, V> {
+    private final int capacity;     // The most records kept at once
+    private final Map<K, V> entries; // Records in order of use, least recent first
+
+    /**
+     * Constructor to initialize an empty cache.
+     *
+     * @param capacity The most records kept at once.
+     */
+    public LruCache(int capacity) {
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<K, V>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > LruCache.this.capacity;
+            }
+        };
+    }
+
+    public synchronized V get(K key) {
+        return entries.get(key);
+    }
+
+    public synchronized void put(K key, V value) {
+        entries.put(key, value);
+    }
+
+    public synchronized void remove(K key) {
+        entries.remove(key);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+}
@@ -1,6 +1,6 @@
 // Filename MenuItem.java
 // Written by Anthony Colley
-// Updated on 10/8/2024
+// Updated on 10/18/2026
 // Final Project - Represents a Menu Item in the Restaurant
 
 import java.io.Serializable;
@@ -15,6 +15,7 @@ public class MenuItem implements Serializable {
     private String description;  // The description of the menu item
     private double price;        // The price of the menu item
     private boolean available;   // Indicates if the item is currently available
+    private transient ChangeFeed changeFeed; // Where changes to the item are published, if anywhere
 
     /**
      * Constructor to initialize a menu item with specific details.
@@ -50,5 +51,17 @@ public class MenuItem implements Serializable {
 
     public void setAvailable(boolean available) {
         this.available = available;
+        if (changeFeed != null) {
+            changeFeed.publish(ChangeEvent.Type.MENU_ITEM_AVAILABILITY_CHANGED, name, "available=" + available);
+        }
+    }
+
+    /**
+     * Starts publishing changes to this menu item.
+     *
+     * @param changeFeed Where changes are published, or null to stop publishing.
+     */
+    public void setChangeFeed(ChangeFeed changeFeed) {
+        this.changeFeed = changeFeed;
     }
 }
\ No newline at end of file
@@ -0,0 +1,68 @@
+// Filename MockPaymentProcessor.java
+// Written by Anthony Colley
+// Updated on 10/18/2026
+// Final Project - Local Stand-In for a Real Payment Processor
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The MockPaymentProcessor class accepts payments locally without contacting a real processor.
+ * It remembers every idempotency key it has charged, and can be configured to fail a share of
+ * requests with retryable errors so that retry handling can be exercised.
+ */
+public class MockPaymentProcessor implements PaymentProcessor {
+    private final Map<String, String> confirmations;  // Confirmation number for each charged key
+    private final AtomicLong nextConfirmation;        // Source of confirmation numbers
+    private final double failureRate;                 // Share of requests that fail with a retryable error
+    private final Random random;                      // Decides which requests fail
+
+    /**
+     * Constructor to initialize a processor that accepts every payment.
+     */
+    public MockPaymentProcessor() {
+        this(0.0, 0L);
+    }
+
+    /**
+     * Constructor to initialize a processor that fails some requests.
+     *
+     * @param failureRate The share of requests (0.0 to 1.0) that fail with a retryable error.
+     * @param seed        The seed used to pick which requests fail.
+     */
+    public MockPaymentProcessor(double failureRate, long seed) {
+        this.confirmations = new ConcurrentHashMap<>();
+        this.nextConfirmation = new AtomicLong(1);
+        this.failureRate = failureRate;
+        this.random = new Random(seed);
+    }
+
+    @Override
+    public String charge(String idempotencyKey, BigDecimal amount) throws PaymentException {
+        if (amount.signum() <= 0) {
+            throw new PaymentException("Payment amount must be greater than zero.", false);
+        }
+        if (failureRate > 0 && nextFailure()) {
+            throw new PaymentException("Payment processor timed out.", true);
+        }
+        // A repeated key returns the original confirmation rather than charging again
+        return confirmations.computeIfAbsent(idempotencyKey,
+                key -> String.format("MOCK-%08d", nextConfirmation.getAndIncrement()));
+    }
+
+    /**
+     * Returns the number of distinct payments charged so far.
+     *
+     * @return The number of charged idempotency keys.
+     */
+    public int getChargeCount() {
+        return confirmations.size();
+    }
+
+    private synchronized boolean nextFailure() {
+        return random.nextDouble() < failureRate;
+    }
+}
@@ -0,0 +1,111 @@
+// Filename Money.java
+// Written by Anthony Colley
+// Updated on 10/18/2026
+// Final Project - Exact Currency Arithmetic for Checks and Payments
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The Money class provides helpers for working with currency amounts in cents.
+ * Amounts are always rounded half-up to two decimal places, and allocations
+ * hand out leftover cents so that the parts always add back up to the whole.
+ */
+public final class Money {
+    public static final BigDecimal ZERO = BigDecimal.ZERO.setScale(2);
+    private static final BigDecimal HUNDRED = new BigDecimal(100);
+
+    private Money() {
+    }
+
+    /**
+     * Converts a menu price to an exact currency amount.
+     *
+     * @param amount The price as stored on a menu item.
+     * @return The amount rounded to cents.
+     */
+    public static BigDecimal of(double amount) {
+        return round(BigDecimal.valueOf(amount));
+    }
+
+    /**
+     * Rounds an amount to cents.
+     *
+     * @param amount The amount to round.
+     * @return The amount rounded half-up to two decimal places.
+     */
+    public static BigDecimal round(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Calculates a percentage of an amount, such as a tax rate or tip.
+     *
+     * @param amount  The amount to take the percentage of.
+     * @param percent The percentage (e.g. 8.25 for 8.25%).
+     * @return The percentage of the amount rounded to cents.
+     */
+    public static BigDecimal percentOf(BigDecimal amount, BigDecimal percent) {
+        return round(amount.multiply(percent).divide(HUNDRED));
+    }
+
+    /**
+     * Splits an amount into parts proportional to the given weights. Each part is
+     * rounded down to the cent and the leftover cents go to the parts with the
+     * largest remainders, so the parts always sum exactly to the amount.
+     *
+     * @param amount  The amount to split.
+     * @param weights The relative size of each part.
+     * @return The amount allocated to each part, in the same order as the weights.
+     */
+    public static List<BigDecimal> allocate(BigDecimal amount, List<BigDecimal> weights) {
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("Cannot split an amount into zero parts.");
+        }
+        BigDecimal totalWeight = BigDecimal.ZERO;
+        for (BigDecimal weight : weights) {
+            totalWeight = totalWeight.add(weight);
+        }
+        if (totalWeight.signum() == 0) {
+            // Nothing to weigh by (e.g. every part is $0.00), so divide evenly
+            List<BigDecimal> even = new ArrayList<>();
+            for (int i = 0; i < weights.size(); i++) {
+                even.add(BigDecimal.ONE);
+            }
+            weights = even;
+            totalWeight = new BigDecimal(weights.size());
+        }
+
+        long totalCents = round(amount).movePointRight(2).longValueExact();
+        long[] cents = new long[weights.size()];
+        BigDecimal[] remainders = new BigDecimal[weights.size()];
+        long allocated = 0;
+        for (int i = 0; i < weights.size(); i++) {
+            BigDecimal exact = new BigDecimal(totalCents).multiply(weights.get(i))
+                    .divide(totalWeight, 10, RoundingMode.FLOOR);
+            cents[i] = exact.setScale(0, RoundingMode.FLOOR).longValue();
+            remainders[i] = exact.subtract(new BigDecimal(cents[i]));
+            allocated += cents[i];
+        }
+
+        // Hand out the leftover cents, largest remainder first (ties go to the earlier part)
+        for (long left = totalCents - allocated; left > 0; left--) {
+            int best = 0;
+            for (int i = 1; i < remainders.length; i++) {
+                if (remainders[i].compareTo(remainders[best]) > 0) {
+                    best = i;
+                }
+            }
+            cents[best]++;
+            remainders[best] = remainders[best].subtract(BigDecimal.ONE);
+        }
+
+        List<BigDecimal> parts = new ArrayList<>();
+        for (long c : cents) {
+            parts.add(BigDecimal.valueOf(c, 2));
+        }
+        return parts;
+    }
+}
@@ -1,11 +1,13 @@
 // Filename Order.java
 // Written by Anthony Colley
-// Updated on 10/8/2024
+// Updated on 10/18/2026
 // Final Project - Manages Orders Placed at a Restaurant
 
 import java.io.Serializable;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
 /**
  * The Order class represents an order placed by a customer.
@@ -13,25 +15,58 @@ import java.util.List;
  */
 public class Order implements Serializable {
     private static final long serialVersionUID = 1L;
+    private String orderId;        // Unique identifier of the order
+    private int tableNumber;       // The table the order was closed at
+    private LocalDateTime closedTime; // The time the order was closed, or null while it is open
     private List<MenuItem> items;  // List of items in the order
+    private List<Integer> seats;   // Seat number for each item (0 = shared by the table)
     private double totalCost;      // Total cost of the order
+    private transient ChangeFeed changeFeed; // Where changes to the order are published, if anywhere
 
     /**
      * Constructor to initialize an empty order.
      */
     public Order() {
+        orderId = UUID.randomUUID().toString();
         items = new ArrayList<>();
+        seats = new ArrayList<>();
         totalCost = 0.0;
     }
 
     /**
-     * Adds a menu item to the order and updates the total cost.
+     * Constructor to restore an order read back from storage.
+     *
+     * @param orderId     The identifier of the order.
+     * @param tableNumber The table the order was placed at.
+     * @param closedTime  The time the order was closed, or null if it is still open.
+     */
+    public Order(String orderId, int tableNumber, LocalDateTime closedTime) {
+        this();
+        this.orderId = orderId;
+        this.tableNumber = tableNumber;
+        this.closedTime = closedTime;
+    }
+
+    /**
+     * Adds a menu item to the order as shared by the table and updates the total cost.
      *
      * @param item The menu item to add.
      */
     public void addItem(MenuItem item) {
+        addItem(item, 0);
+    }
+
+    /**
+     * Adds a menu item to the order for a specific seat and updates the total cost.
+     *
+     * @param item The menu item to add.
+     * @param seat The seat number ordering the item, or 0 if shared by the table.
+     */
+    public void addItem(MenuItem item, int seat) {
+        getSeats().add(seat);
         items.add(item);
         totalCost += item.getPrice();
+        publish(ChangeEvent.Type.ORDER_ITEM_ADDED, "item=" + item.getName() + "; seat=" + seat + "; price=" + item.getPrice());
     }
 
     /**
@@ -40,8 +75,12 @@ public class Order implements Serializable {
      * @param item The menu item to remove.
      */
     public void removeItem(MenuItem item) {
-        if (items.remove(item)) {
+        int index = items.indexOf(item);
+        if (index >= 0) {
+            items.remove(index);
+            getSeats().remove(index);
             totalCost -= item.getPrice();
+            publish(ChangeEvent.Type.ORDER_ITEM_REMOVED, "item=" + item.getName() + "; price=" + item.getPrice());
         }
     }
 
@@ -50,10 +89,72 @@ public class Order implements Serializable {
      */
     public void clearOrder() {
         items.clear();
+        getSeats().clear();
         totalCost = 0.0;
+        publish(ChangeEvent.Type.ORDER_CLEARED, "");
+    }
+
+    /**
+     * Marks the order as closed once its check has been settled.
+     *
+     * @param tableNumber The table the order was placed at.
+     */
+    public void close(int tableNumber) {
+        close(tableNumber, LocalDateTime.now());
+    }
+
+    /**
+     * Marks the order as closed at a given time once its check has been settled.
+     *
+     * @param tableNumber The table the order was placed at.
+     * @param closedTime  The time the order was closed.
+     */
+    public void close(int tableNumber, LocalDateTime closedTime) {
+        this.tableNumber = tableNumber;
+        this.closedTime = closedTime;
+        publish(ChangeEvent.Type.ORDER_CLOSED, "items=" + items.size() + "; total=" + totalCost);
+    }
+
+    // A closed copy for the archive, so the order itself is only marked closed once it has been archived
+    Order closedCopy(int tableNumber, LocalDateTime closedTime) {
+        Order copy = new Order(getOrderId(), tableNumber, closedTime);
+        for (int i = 0; i < items.size(); i++) {
+            copy.addItem(items.get(i), getSeat(i));
+        }
+        return copy;
+    }
+
+    /**
+     * Starts publishing changes to this order. Called by the Table the order belongs to.
+     *
+     * @param changeFeed  Where changes are published, or null to stop publishing.
+     * @param tableNumber The table the order belongs to.
+     */
+    void setChangeFeed(ChangeFeed changeFeed, int tableNumber) {
+        this.changeFeed = changeFeed;
+        this.tableNumber = tableNumber;
     }
 
     // Getters for order data
+    public String getOrderId() {
+        if (orderId == null) {
+            orderId = UUID.randomUUID().toString(); // Orders saved before IDs were added
+        }
+        return orderId;
+    }
+
+    public int getTableNumber() {
+        return tableNumber;
+    }
+
+    public LocalDateTime getClosedTime() {
+        return closedTime;
+    }
+
+    public boolean isClosed() {
+        return closedTime != null;
+    }
+
     public List<MenuItem> getItems() {
         return items;
     }
@@ -61,4 +162,31 @@ public class Order implements Serializable {
     public double getTotalCost() {
         return totalCost;
     }
+
+    /**
+     * Returns the seat number for the item at the given position in the order.
+     *
+     * @param index The position of the item in the order.
+     * @return The seat number, or 0 if the item is shared by the table.
+     */
+    public int getSeat(int index) {
+        return getSeats().get(index);
+    }
+
+    private void publish(ChangeEvent.Type type, String detail) {
+        if (changeFeed != null) {
+            changeFeed.publish(type, getOrderId(), "table=" + tableNumber + (detail.isEmpty() ? "" : "; " + detail));
+        }
+    }
+
+    // Orders saved before seats were tracked have no seat list, so treat their items as shared
+    private List<Integer> getSeats() {
+        if (seats == null) {
+            seats = new ArrayList<>();
+        }
+        while (seats.size() < items.size()) {
+            seats.add(0);
+        }
+        return seats;
+    }
 }
\ No newline at end of file
@@ -1,12 +1,21 @@
 // Filename OrderEaseApp.java
 // Written by Anthony Colley
-// Updated on 10/9/2024
+// Updated on 10/18/2026
 // Final Project - Comprehensive Restaurant Management System
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * The OrderEaseApp class is the main GUI application for the OrderEase system.
@@ -14,24 +23,117 @@ import java.time.LocalDateTime;
  * the restaurant management system.
  */
 public class OrderEaseApp extends JFrame {
+    private static final BigDecimal TAX_RATE = new BigDecimal("8.25"); // Sales tax percentage
     private Restaurant restaurant;  // Manages restaurant data
     private Table currentTable;     // Tracks the current table being accessed by the guest
+    private SettlementEngine settlementEngine; // Produces and settles checks
+    private Map<Integer, OpenChecks> openChecks = new HashMap<>(); // Checks not yet fully paid, by table number
 
     /**
      * Constructor to initialize the application.
      */
     public OrderEaseApp() {
-        restaurant = new Restaurant();
+        restaurant = new Restaurant(openStorage());
+        settlementEngine = new SettlementEngine(new MockPaymentProcessor(), TAX_RATE);
         try {
-            restaurant.loadData("restaurant_data.dat"); // Load saved data
-        } catch (IOException | ClassNotFoundException e) {
-            populateSampleData(); // Load sample data if file is not found
+            restaurant.load(); // Load saved data
+        } catch (NoSuchFileException | FileNotFoundException e) {
+            // Nothing saved yet; sample data is loaded below
+        } catch (IOException e) {
+            // Starting with sample data would overwrite the saved data on the first save, so stop instead
+            JOptionPane.showMessageDialog(this, "Saved restaurant data could not be read: " + e.getMessage()
+                    + "\nOrderEase will close so the data is not overwritten.", "Error", JOptionPane.ERROR_MESSAGE);
+            System.exit(1);
         }
+        if (restaurant.getTables().isEmpty()) {
+            populateSampleData(); // Load sample data if nothing has been saved
+        }
+        openChangeFeed();
+
+        // Save the restaurant when the window is closed so it reopens where it left off
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                saveRestaurant();
+            }
+        });
 
         // Default interface as Guest
         setupGuestUI();
     }
 
+    /**
+     * Opens the embedded database named by the orderease.jdbcUrl system property
+     * (e.g. -Dorderease.jdbcUrl=jdbc:h2:./restaurant), or the data file if none is given.
+     */
+    private StorageBackend openStorage() {
+        String jdbcUrl = System.getProperty("orderease.jdbcUrl");
+        if (jdbcUrl != null && !jdbcUrl.trim().isEmpty()) {
+            try {
+                return new JdbcStorageBackend(jdbcUrl);
+            } catch (IOException e) {
+                JOptionPane.showMessageDialog(this, e.getMessage() + " Using restaurant_data.dat instead.",
+                        "Error", JOptionPane.ERROR_MESSAGE);
+            }
+        }
+        return new FileStorageBackend("restaurant_data.dat", "restaurant_archive");
+    }
+
+    /**
+     * Saves the tables, servers, and menu to the StorageBackend so they survive a restart.
+     */
+    private void saveRestaurant() {
+        try {
+            restaurant.save();
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(this, "Could not save restaurant data: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    /**
+     * Looks up a table, optionally only among the tables assigned to a server.
+     *
+     * @param tableNumber The table number.
+     * @param server      The server the table must be assigned to, or null for any table.
+     * @return The table, or null if it was not found (an error has already been shown).
+     */
+    private Table findTable(int tableNumber, Server server) {
+        Table table;
+        try {
+            table = restaurant.findTable(tableNumber);
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(this, "Could not look up table: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            return null;
+        }
+        if (table == null || (server != null && table.getAssignedServer() != server)) {
+            JOptionPane.showMessageDialog(this, server == null ? "Table not found." : "Table not found or not assigned to you.",
+                    "Error", JOptionPane.ERROR_MESSAGE);
+            return null;
+        }
+        return table;
+    }
+
+    /**
+     * Publishes order, table, and menu changes to the change log in restaurant_changes
+     * so that kitchen displays, loyalty, and accounting can follow along.
+     */
+    private void openChangeFeed() {
+        try {
+            ChangeFeed changeFeed = new ChangeFeed(new ChangeLog("restaurant_changes"));
+            restaurant.setChangeFeed(changeFeed);
+            // Write out any queued changes when the application exits
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    changeFeed.close();
+                } catch (IOException e) {
+                    System.err.println("Could not close the change log: " + e.getMessage());
+                }
+            }));
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(this, "Could not open the change log: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
     /**
      * Sets up the user interface for guest users, allowing them to browse the menu and place orders.
      */
@@ -102,10 +204,31 @@ public class OrderEaseApp extends JFrame {
     }
 
     /**
-     * Places the selected item into the guest's order.
+     * Places the selected item into the guest's order, for the seat the guest names so the
+     * check can later be split by seat.
      */
     private void placeOrder(MenuItem item) {
-        currentTable.getCurrentOrder().addItem(item);
+        if (openChecks.containsKey(currentTable.getTableNumber())) {
+            JOptionPane.showMessageDialog(this, "Your check is being settled, so nothing more can be ordered. "
+                    + "Please ask your server.", "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        String seatStr = JOptionPane.showInputDialog(this, "Enter your seat number (0 to share with the table):", "1");
+        if (seatStr == null || seatStr.trim().isEmpty()) {
+            return; // Return early if no input
+        }
+        int seat;
+        try {
+            seat = Integer.parseInt(seatStr.trim());
+        } catch (NumberFormatException e) {
+            seat = -1;
+        }
+        if (seat < 0) {
+            JOptionPane.showMessageDialog(this, "Please enter a seat number of 0 or more.", "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        currentTable.getCurrentOrder().addItem(item, seat);
+        saveRestaurant();
         JOptionPane.showMessageDialog(this, "Item added to order. Server will be notified.");
         Server assignedServer = currentTable.getAssignedServer();
         if (assignedServer != null) {
@@ -130,7 +253,11 @@ public class OrderEaseApp extends JFrame {
      * Simulates a guest requesting the check.
      */
     private void requestCheck() {
-        JOptionPane.showMessageDialog(this, "Your check has been requested. A server will be with you shortly.");
+        Check check = settlementEngine.createCheck(currentTable);
+        JTextArea checkArea = new JTextArea(10, 30);
+        checkArea.setText(check + "\n\nYour check has been requested. A server will be with you shortly.");
+        checkArea.setEditable(false);
+        JOptionPane.showMessageDialog(this, new JScrollPane(checkArea), "Check", JOptionPane.INFORMATION_MESSAGE);
         Server assignedServer = currentTable.getAssignedServer();
         if (assignedServer != null) {
             assignedServer.notifyCheckRequest(currentTable);
@@ -151,10 +278,12 @@ public class OrderEaseApp extends JFrame {
                 null, options, options[0]);
     
         if (choice == 0) { // Server option selected
-            Server server = restaurant.getServers().stream()
-                    .filter(s -> s.getName().equalsIgnoreCase("Alice")) // Auto-select the first server "Alice"
-                    .findFirst()
-                    .orElse(null);
+            Server server;
+            try {
+                server = restaurant.findServer("Alice"); // Auto-select the first server "Alice"
+            } catch (IOException e) {
+                server = null;
+            }
             if (server != null) {
                 setupServerUI(server); // Go to server UI
             } else {
@@ -205,15 +334,17 @@ public class OrderEaseApp extends JFrame {
     private void setupServerUI(Server server) {
         setTitle("OrderEase - Server Interface");
         getContentPane().removeAll(); // Clear existing UI
-        JPanel mainPanel = new JPanel(new GridLayout(4, 1, 10, 10));
+        JPanel mainPanel = new JPanel(new GridLayout(5, 1, 10, 10));
         JButton viewTablesButton = new JButton("View Tables");
         JButton checkInButton = new JButton("Check In");
         JButton markServedButton = new JButton("Mark Order Served");
+        JButton settleCheckButton = new JButton("Settle Check");
         JButton backToGuestButton = new JButton("Back to Guest");
     
         mainPanel.add(viewTablesButton);
         mainPanel.add(checkInButton);
         mainPanel.add(markServedButton);
+        mainPanel.add(settleCheckButton);
         mainPanel.add(backToGuestButton);
     
         add(mainPanel);
@@ -223,6 +354,7 @@ public class OrderEaseApp extends JFrame {
         viewTablesButton.addActionListener(e -> viewTables(server));
         checkInButton.addActionListener(e -> checkInWithGuest(server));
         markServedButton.addActionListener(e -> markOrderServed(server));
+        settleCheckButton.addActionListener(e -> settleCheck(server));
     
         // Properly clear server UI and reset back to guest UI
         backToGuestButton.addActionListener(e -> {
@@ -261,13 +393,8 @@ public class OrderEaseApp extends JFrame {
             return; // Return early if no input
         }
         int tableNumber = Integer.parseInt(tableNumberStr);
-        Table table = restaurant.getTables().stream()
-                .filter(t -> t.getTableNumber() == tableNumber && t.getAssignedServer() == server)
-                .findFirst()
-                .orElse(null);
-
+        Table table = findTable(tableNumber, server);
         if (table == null) {
-            JOptionPane.showMessageDialog(this, "Table not found or not assigned to you.", "Error", JOptionPane.ERROR_MESSAGE);
             return;
         }
 
@@ -283,20 +410,140 @@ public class OrderEaseApp extends JFrame {
             return; // Return early if no input
         }
         int tableNumber = Integer.parseInt(tableNumberStr);
-        Table table = restaurant.getTables().stream()
-                .filter(t -> t.getTableNumber() == tableNumber && t.getAssignedServer() == server)
-                .findFirst()
-                .orElse(null);
-
+        Table table = findTable(tableNumber, server);
         if (table == null) {
-            JOptionPane.showMessageDialog(this, "Table not found or not assigned to you.", "Error", JOptionPane.ERROR_MESSAGE);
             return;
         }
 
-        table.getCurrentOrder().clearOrder(); // Clear order after serving
+        // The order stays on the table until its check is settled
         JOptionPane.showMessageDialog(this, "Order for Table " + tableNumber + " has been marked as served.");
     }
 
+    /**
+     * Produces the check for a table, splits it if the guests ask, and settles it with the payment processor.
+     * If a payment fails, the table's checks are kept so that settling again only charges the unpaid checks.
+     */
+    private void settleCheck(Server server) {
+        String tableNumberStr = JOptionPane.showInputDialog(this, "Enter table number to settle:");
+        if (tableNumberStr == null || tableNumberStr.trim().isEmpty()) {
+            return; // Return early if no input
+        }
+        int tableNumber = Integer.parseInt(tableNumberStr);
+        Table table = findTable(tableNumber, server);
+        if (table == null) {
+            return;
+        }
+        if (table.getCurrentOrder().getItems().isEmpty()) {
+            JOptionPane.showMessageDialog(this, "Table " + tableNumber + " has nothing to pay for.", "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        Order order = table.getCurrentOrder();
+        OpenChecks open = openChecks.get(tableNumber);
+        if (open != null && !open.matches(order)) {
+            if (open.hasPayments()) {
+                // Closing the order now would archive items nobody has paid for as paid
+                JOptionPane.showMessageDialog(this, "The order for Table " + tableNumber + " changed after some of its checks "
+                        + "were paid, so it cannot be settled automatically.", "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            open = null; // Nothing was charged, so the checks can simply be made again
+        }
+        if (open == null) {
+            List<Check> checks = createChecks(table);
+            if (checks == null) {
+                openChecks.remove(tableNumber);
+                return; // Server cancelled before any payment was taken
+            }
+            open = new OpenChecks(order, checks);
+            openChecks.put(tableNumber, open);
+        }
+
+        StringBuilder receipt = new StringBuilder();
+        for (Check guestCheck : open.checks) {
+            if (guestCheck.isSettled()) {
+                continue; // Paid on an earlier attempt
+            }
+            try {
+                Payment payment = settlementEngine.payBalance(guestCheck);
+                receipt.append("Check ").append(guestCheck.getCheckId()).append(" paid $")
+                        .append(payment.getAmount()).append(" (").append(payment.getConfirmationNumber()).append(")\n");
+            } catch (PaymentException e) {
+                JOptionPane.showMessageDialog(this, receipt + "Payment failed for check " + guestCheck.getCheckId()
+                        + ": " + e.getMessage() + "\nSettle the table again to retry the unpaid checks.",
+                        "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+        }
+        openChecks.remove(tableNumber);
+
+        try {
+            restaurant.closeOrder(table); // Archive the paid order and start a new one for the table
+        } catch (IOException e) {
+            // The table has already been given a new order
+            JOptionPane.showMessageDialog(this, "Check was paid but the order could not be archived: "
+                    + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+        }
+        saveRestaurant();
+        JOptionPane.showMessageDialog(this, receipt.toString(), "Check Settled", JOptionPane.INFORMATION_MESSAGE);
+    }
+
+    /**
+     * Asks how the guests want to split the check and what they tip.
+     *
+     * @return The tipped checks to collect, or null if the server cancelled.
+     */
+    private List<Check> createChecks(Table table) {
+        Check check = settlementEngine.createCheck(table);
+        String[] options = {"One Check", "By Seat", "Evenly"};
+        int choice = JOptionPane.showOptionDialog(this,
+                check + "\n\nHow would the guests like to pay?",
+                "Settle Check",
+                JOptionPane.DEFAULT_OPTION,
+                JOptionPane.INFORMATION_MESSAGE,
+                null, options, options[0]);
+        if (choice < 0) {
+            return null; // Dialog closed without a choice
+        }
+
+        List<Check> checks = List.of(check);
+        if (choice == 1) {
+            checks = settlementEngine.splitBySeat(check);
+        } else if (choice == 2) {
+            String guestsStr = JOptionPane.showInputDialog(this, "Enter number of guests:");
+            if (guestsStr == null || guestsStr.trim().isEmpty()) {
+                return null; // Return early if no input
+            }
+            int guests;
+            try {
+                guests = Integer.parseInt(guestsStr.trim());
+            } catch (NumberFormatException e) {
+                guests = 0;
+            }
+            if (guests < 1) {
+                JOptionPane.showMessageDialog(this, "Please enter a number of guests of 1 or more.", "Error", JOptionPane.ERROR_MESSAGE);
+                return null;
+            }
+            checks = settlementEngine.splitEvenly(check, guests);
+        }
+
+        String tipStr = JOptionPane.showInputDialog(this, "Enter tip percentage:", "20");
+        if (tipStr == null || tipStr.trim().isEmpty()) {
+            return null; // Return early if no input
+        }
+        try {
+            BigDecimal tipPercent = new BigDecimal(tipStr.trim());
+            for (Check guestCheck : checks) {
+                settlementEngine.applyTipPercent(guestCheck, tipPercent);
+            }
+        } catch (IllegalArgumentException e) {
+            // Also covers NumberFormatException for input that is not a number
+            JOptionPane.showMessageDialog(this, "Please enter a tip percentage of 0 or more.", "Error", JOptionPane.ERROR_MESSAGE);
+            return null;
+        }
+        return checks;
+    }
+
     /**
      * Adds a new menu item to the restaurant's menu.
      */
@@ -305,6 +552,16 @@ public class OrderEaseApp extends JFrame {
         if (name == null || name.trim().isEmpty()) {
             return; // Return early if no input
         }
+        try {
+            if (restaurant.findMenuItem(name.trim()) != null) {
+                JOptionPane.showMessageDialog(this, "The menu already has an item named '" + name.trim() + "'.",
+                        "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(this, "Could not check the menu: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
         String description = JOptionPane.showInputDialog(this, "Enter menu item description:");
         if (description == null || description.trim().isEmpty()) {
             return; // Return early if no input
@@ -319,6 +576,7 @@ public class OrderEaseApp extends JFrame {
 
         MenuItem newItem = new MenuItem(name, description, price, available);
         restaurant.addMenuItem(newItem);
+        saveRestaurant();
         JOptionPane.showMessageDialog(this, "Menu item added.");
     }
 
@@ -341,7 +599,13 @@ public class OrderEaseApp extends JFrame {
      * Removes the selected menu item.
      */
     private void removeMenuItem(MenuItem item) {
-        restaurant.getMenu().remove(item);
+        try {
+            restaurant.retireMenuItem(item); // Keep the item in the archive for past orders and reports
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(this, "Menu item could not be archived: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        saveRestaurant();
         JOptionPane.showMessageDialog(this, "Menu item '" + item.getName() + "' has been removed.");
     }
 
@@ -354,13 +618,8 @@ public class OrderEaseApp extends JFrame {
             return; // Return early if no input
         }
         int tableNumber = Integer.parseInt(tableNumberStr);
-        Table table = restaurant.getTables().stream()
-                .filter(t -> t.getTableNumber() == tableNumber)
-                .findFirst()
-                .orElse(null);
-
+        Table table = findTable(tableNumber, null);
         if (table == null) {
-            JOptionPane.showMessageDialog(this, "Table not found.", "Error", JOptionPane.ERROR_MESSAGE);
             return;
         }
 
@@ -368,10 +627,13 @@ public class OrderEaseApp extends JFrame {
         if (serverName == null || serverName.trim().isEmpty()) {
             return; // Return early if no input
         }
-        Server server = restaurant.getServers().stream()
-                .filter(s -> s.getName().equalsIgnoreCase(serverName))
-                .findFirst()
-                .orElse(null);
+        Server server;
+        try {
+            server = restaurant.findServer(serverName.trim());
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(this, "Could not look up server: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
 
         if (server == null || !server.isAvailable()) {
             JOptionPane.showMessageDialog(this, "Server not available.", "Error", JOptionPane.ERROR_MESSAGE);
@@ -379,6 +641,7 @@ public class OrderEaseApp extends JFrame {
         }
 
         restaurant.reassignServer(table, server);
+        saveRestaurant();
         JOptionPane.showMessageDialog(this, "Server assigned to table.");
     }
 
@@ -404,4 +667,33 @@ public class OrderEaseApp extends JFrame {
             app.setVisible(true);
         });
     }
+
+    /**
+     * The OpenChecks class holds a table's checks while they are being paid, along with the
+     * order they were made from, so a changed order is never closed against old checks.
+     */
+    private static class OpenChecks {
+        private final String orderId;     // The order the checks were made from
+        private final List<MenuItem> items; // The items on the order at the time
+        private final List<Check> checks; // The checks to collect
+
+        OpenChecks(Order order, List<Check> checks) {
+            this.orderId = order.getOrderId();
+            this.items = new ArrayList<>(order.getItems());
+            this.checks = checks;
+        }
+
+        boolean matches(Order order) {
+            return order.getOrderId().equals(orderId) && order.getItems().equals(items);
+        }
+
+        boolean hasPayments() {
+            for (Check check : checks) {
+                if (!check.getPayments().isEmpty()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
 }
@@ -0,0 +1,59 @@
+// Filename Payment.java
+// Written by Anthony Colley
+// Updated on 10/18/2026
+// Final Project - Represents a Payment Made Against a Check
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * The Payment class represents a payment that the payment processor has accepted
+ * for a check. It keeps the idempotency key the payment was submitted with so that
+ * retried submissions can be matched to the original payment.
+ */
+public class Payment implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private String checkId;             // The check the payment was applied to
+    private String idempotencyKey;      // The key the payment was submitted with
+    private String confirmationNumber;  // The confirmation returned by the payment processor
+    private BigDecimal amount;          // The amount paid
+    private LocalDateTime paidTime;     // The time the payment was recorded
+
+    /**
+     * Constructor to initialize a payment with specific details.
+     *
+     * @param checkId            The check the payment was applied to.
+     * @param idempotencyKey     The key the payment was submitted with.
+     * @param confirmationNumber The confirmation returned by the payment processor.
+     * @param amount             The amount paid.
+     */
+    public Payment(String checkId, String idempotencyKey, String confirmationNumber, BigDecimal amount) {
+        this.checkId = checkId;
+        this.idempotencyKey = idempotencyKey;
+        this.confirmationNumber = confirmationNumber;
+        this.amount = amount;
+        this.paidTime = LocalDateTime.now();
+    }
+
+    // Getters for payment data
+    public String getCheckId() {
+        return checkId;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public String getConfirmationNumber() {
+        return confirmationNumber;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public LocalDateTime getPaidTime() {
+        return paidTime;
+    }
+}
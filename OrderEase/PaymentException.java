@@ -0,0 +1,28 @@
+// Filename PaymentException.java
+// Written by Anthony Colley
+// Updated on 10/18/2026
+// Final Project - Signals a Failed Payment
+
+/**
+ * The PaymentException class signals that the payment processor did not accept a payment.
+ * Retryable failures (such as a timeout) may succeed if the same payment is submitted again.
+ */
+public class PaymentException extends Exception {
+    private static final long serialVersionUID = 1L;
+    private final boolean retryable;  // Indicates if submitting the payment again may succeed
+
+    /**
+     * Constructor to initialize a payment failure.
+     *
+     * @param message   The reason the payment failed.
+     * @param retryable True if submitting the payment again may succeed.
+     */
+    public PaymentException(String message, boolean retryable) {
+        super(message);
+        this.retryable = retryable;
+    }
+
+    public boolean isRetryable() {
+        return retryable;
+    }
+}
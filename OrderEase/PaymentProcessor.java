@@ -0,0 +1,24 @@
+// Filename PaymentProcessor.java
+// Written by Anthony Colley
+// Updated on 10/18/2026
+// Final Project - Charges Guests for Their Checks
+
+import java.math.BigDecimal;
+
+/**
+ * The PaymentProcessor interface describes a service that charges guests for their checks.
+ * Implementations must be idempotent: charging again with the same idempotency key
+ * returns the original confirmation instead of charging the guest twice.
+ */
+public interface PaymentProcessor {
+
+    /**
+     * Charges an amount to the guest.
+     *
+     * @param idempotencyKey A key that is unique to this payment attempt and reused on retries.
+     * @param amount         The amount to charge.
+     * @return The confirmation number for the charge.
+     * @throws PaymentException If the charge was not accepted.
+     */
+    String charge(String idempotencyKey, BigDecimal amount) throws PaymentException;
+}
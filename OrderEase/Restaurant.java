@@ -1,9 +1,11 @@
 // Filename Restaurant.java
 // Written by Anthony Colley
-// Updated on 10/8/2024
+// Updated on 10/18/2026
 // Final Project - Manages Restaurant Data and Operations
 
 import java.io.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -11,20 +13,44 @@ import java.util.stream.Collectors;
 /**
  * The Restaurant class manages the overall restaurant data, including tables, servers, and menu items.
  * It provides methods for data persistence, server assignment, menu updates, and analytics.
+ *
+ * <p>Only the working set is kept in memory: tables, active servers, the current menu, and
+ * today's closed orders. Older closed orders, retired menu items, and inactive servers are
+ * handed to the StorageBackend so the heap stays the same size no matter how much history
+ * builds up, and they can still be looked up or reported on through this class.
  */
 public class Restaurant implements Serializable {
     private static final long serialVersionUID = 1L;
+    private static final String DEFAULT_DATA_FILE = "restaurant_data.dat";
+    private static final String DEFAULT_ARCHIVE_DIRECTORY = "restaurant_archive";
+
     private List<Table> tables;     // List of tables in the restaurant
     private List<Server> servers;   // List of servers in the restaurant
     private List<MenuItem> menu;    // List of menu items offered by the restaurant
+    private transient List<Order> todaysOrders;  // Orders closed today
+    private transient LocalDate today;           // The day todaysOrders belongs to
+    private transient StorageBackend storage;    // Where restaurant data and history are stored
+    private transient ChangeFeed changeFeed;     // Where changes are published, if anywhere
 
     /**
-     * Constructor to initialize the restaurant data.
+     * Constructor to initialize the restaurant data with the default file storage.
      */
     public Restaurant() {
+        this(new FileStorageBackend(DEFAULT_DATA_FILE, DEFAULT_ARCHIVE_DIRECTORY));
+    }
+
+    /**
+     * Constructor to initialize the restaurant data.
+     *
+     * @param storage Where restaurant data and history are stored.
+     */
+    public Restaurant(StorageBackend storage) {
         tables = new ArrayList<>();
         servers = new ArrayList<>();
         menu = new ArrayList<>();
+        todaysOrders = new ArrayList<>();
+        today = LocalDate.now();
+        this.storage = storage;
     }
 
     // Getters for restaurant data
@@ -42,6 +68,7 @@ public class Restaurant implements Serializable {
 
     // Add a new table to the restaurant
     public void addTable(Table table) {
+        table.setChangeFeed(changeFeed);
         tables.add(table);
     }
 
@@ -52,7 +79,97 @@ public class Restaurant implements Serializable {
 
     // Add a new menu item to the restaurant's menu
     public void addMenuItem(MenuItem item) {
+        item.setChangeFeed(changeFeed);
         menu.add(item);
+        if (changeFeed != null) {
+            changeFeed.publish(ChangeEvent.Type.MENU_ITEM_ADDED, item.getName(), "price=" + item.getPrice());
+        }
+    }
+
+    /**
+     * Publishes every change to the restaurant's tables, orders, and menu items to a change feed.
+     *
+     * @param changeFeed Where changes are published, or null to stop publishing.
+     */
+    public synchronized void setChangeFeed(ChangeFeed changeFeed) {
+        this.changeFeed = changeFeed;
+        for (Table table : tables) {
+            table.setChangeFeed(changeFeed);
+        }
+        for (MenuItem item : menu) {
+            item.setChangeFeed(changeFeed);
+        }
+    }
+
+    public ChangeFeed getChangeFeed() {
+        return changeFeed;
+    }
+
+    /**
+     * Finds a table by its number. Tables in memory are checked first; any other table is looked
+     * up in the StorageBackend, where another terminal sharing the same store may have added it,
+     * and is then kept in memory like the rest.
+     *
+     * @param tableNumber The table number.
+     * @return The table, or null if no table has that number.
+     * @throws IOException If an I/O error occurs while reading the StorageBackend.
+     */
+    public synchronized Table findTable(int tableNumber) throws IOException {
+        for (Table table : tables) {
+            if (table.getTableNumber() == tableNumber) {
+                return table;
+            }
+        }
+        Table stored = storage.findTable(tableNumber);
+        if (stored != null) {
+            Server server = stored.getAssignedServer();
+            stored.setAssignedServer(server == null ? null : findServer(server.getName()));
+            addTable(stored);
+        }
+        return stored;
+    }
+
+    /**
+     * Finds an active server by name, ignoring case. Servers not in memory are looked up in the
+     * StorageBackend in the same way as tables.
+     *
+     * @param name The name of the server.
+     * @return The server, or null if no active server has that name.
+     * @throws IOException If an I/O error occurs while reading the StorageBackend.
+     */
+    public synchronized Server findServer(String name) throws IOException {
+        for (Server server : servers) {
+            if (server.getName().equalsIgnoreCase(name)) {
+                return server;
+            }
+        }
+        Server stored = storage.findServer(name);
+        if (stored != null) {
+            addServer(stored);
+        }
+        return stored;
+    }
+
+    /**
+     * Finds an item on the current menu by name, ignoring case. Items not in memory are looked
+     * up in the StorageBackend in the same way as tables.
+     *
+     * @param name The name of the menu item.
+     * @return The menu item, or null if the menu has no item with that name.
+     * @throws IOException If an I/O error occurs while reading the StorageBackend.
+     */
+    public synchronized MenuItem findMenuItem(String name) throws IOException {
+        for (MenuItem item : menu) {
+            if (item.getName().equalsIgnoreCase(name)) {
+                return item;
+            }
+        }
+        MenuItem stored = storage.findMenuItem(name);
+        if (stored != null) {
+            stored.setChangeFeed(changeFeed);
+            menu.add(stored);
+        }
+        return stored;
     }
 
     /**
@@ -88,6 +205,178 @@ public class Restaurant implements Serializable {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Closes a table's order once its check has been settled. The order is written to the
+     * archive and kept in memory until the end of the day, and the table gets a new empty order.
+     * The order is only marked closed once it has been archived; the table gets a new order
+     * either way, so a failed close never leaves the paid order's id in use.
+     *
+     * @param table The table whose order is closed.
+     * @return The closed order.
+     * @throws IOException If the order could not be archived.
+     */
+    public synchronized Order closeOrder(Table table) throws IOException {
+        Order order = table.getCurrentOrder();
+        LocalDateTime closedTime = LocalDateTime.now();
+        try {
+            storage.archiveOrder(order.closedCopy(table.getTableNumber(), closedTime));
+        } catch (IOException | RuntimeException e) {
+            table.setCurrentOrder(new Order());
+            throw e;
+        }
+        order.close(table.getTableNumber(), closedTime);
+        rollOverDay();
+        todaysOrders.add(order);
+        table.setCurrentOrder(new Order());
+        return order;
+    }
+
+    /**
+     * Returns the orders closed today.
+     *
+     * @return List of orders closed since midnight.
+     */
+    public synchronized List<Order> getTodaysOrders() {
+        rollOverDay();
+        return new ArrayList<>(todaysOrders);
+    }
+
+    /**
+     * Finds a closed order, whether it was closed today or is in the archive.
+     *
+     * @param orderId The identifier of the order.
+     * @return The order, or null if no closed order has that identifier.
+     * @throws IOException If an I/O error occurs while reading the archive.
+     */
+    public Order findClosedOrder(String orderId) throws IOException {
+        synchronized (this) {
+            for (Order order : todaysOrders) {
+                if (order.getOrderId().equals(orderId)) {
+                    return order;
+                }
+            }
+        }
+        return storage.findOrder(orderId);
+    }
+
+    /**
+     * Removes a menu item from the menu and moves it to the archive.
+     *
+     * @param item The menu item to retire.
+     * @throws IOException If the item could not be archived.
+     */
+    public synchronized void retireMenuItem(MenuItem item) throws IOException {
+        storage.archiveMenuItem(item);
+        menu.remove(item);
+        item.setChangeFeed(null);
+        if (changeFeed != null) {
+            changeFeed.publish(ChangeEvent.Type.MENU_ITEM_RETIRED, item.getName(), "");
+        }
+    }
+
+    /**
+     * Looks up a menu item that is no longer on the menu.
+     *
+     * @param name The name of the menu item.
+     * @return The retired menu item, or null if none has that name.
+     * @throws IOException If an I/O error occurs while reading the archive.
+     */
+    public MenuItem findRetiredMenuItem(String name) throws IOException {
+        return storage.findRetiredMenuItem(name);
+    }
+
+    /**
+     * Removes a server from the restaurant and moves them to the archive.
+     * Any tables assigned to the server are left without a server.
+     *
+     * @param server The server to retire.
+     * @throws IOException If the server could not be archived.
+     */
+    public synchronized void retireServer(Server server) throws IOException {
+        storage.archiveServer(server);
+        for (Table table : tables) {
+            if (table.getAssignedServer() == server) {
+                table.setAssignedServer(null);
+            }
+        }
+        servers.remove(server);
+    }
+
+    /**
+     * Looks up a server who no longer works at the restaurant.
+     *
+     * @param name The name of the server.
+     * @return The inactive server, or null if none has that name.
+     * @throws IOException If an I/O error occurs while reading the archive.
+     */
+    public Server findInactiveServer(String name) throws IOException {
+        return storage.findInactiveServer(name);
+    }
+
+    /**
+     * Returns a list of popular menu items across every closed order in the history.
+     * The counting is done by the StorageBackend, so the history is never loaded into memory.
+     *
+     * @return List of popular menu items with their order count.
+     * @throws IOException If an I/O error occurs while reading the history.
+     */
+    public List<String> getPopularItemsAllTime() throws IOException {
+        return storage.countItemsOrdered()
+                .entrySet()
+                .stream()
+                .sorted((e1, e2) -> Long.compare(e2.getValue(), e1.getValue()))
+                .map(entry -> entry.getKey() + " (" + entry.getValue() + " orders)")
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Finds the orders closed at a table during a period of time.
+     *
+     * @param tableNumber The table number.
+     * @param from        The start of the period (inclusive).
+     * @param to          The end of the period (exclusive).
+     * @return The matching orders, oldest first.
+     * @throws IOException If an I/O error occurs while reading the history.
+     */
+    public List<Order> findClosedOrders(int tableNumber, LocalDateTime from, LocalDateTime to) throws IOException {
+        return storage.findOrders(tableNumber, from, to);
+    }
+
+    // Drops yesterday's orders from memory; they remain in the archive
+    private void rollOverDay() {
+        LocalDate now = LocalDate.now();
+        if (!now.equals(today)) {
+            todaysOrders.clear();
+            today = now;
+        }
+    }
+
+    /**
+     * Saves the restaurant data to the StorageBackend.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    public synchronized void save() throws IOException {
+        storage.save(tables, servers, menu);
+    }
+
+    /**
+     * Loads the restaurant data from the StorageBackend.
+     *
+     * @throws IOException If an I/O error occurs or nothing has been saved.
+     */
+    public synchronized void load() throws IOException {
+        StorageBackend.Snapshot snapshot = storage.load();
+        tables = snapshot.getTables();
+        servers = snapshot.getServers();
+        menu = snapshot.getMenu();
+        setChangeFeed(changeFeed);
+    }
+
+    public StorageBackend getStorage() {
+        return storage;
+    }
+
     /**
      * Saves the restaurant data to a file for persistence.
      *
@@ -95,11 +384,7 @@ public class Restaurant implements Serializable {
      * @throws IOException If an I/O error occurs.
      */
     public void saveData(String filename) throws IOException {
-        try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(filename))) {
-            out.writeObject(tables);
-            out.writeObject(servers);
-            out.writeObject(menu);
-        }
+        new FileStorageBackend(filename, DEFAULT_ARCHIVE_DIRECTORY).save(tables, servers, menu);
     }
 
     /**
@@ -110,10 +395,10 @@ public class Restaurant implements Serializable {
      * @throws ClassNotFoundException If the class of a serialized object cannot be found.
      */
     public void loadData(String filename) throws IOException, ClassNotFoundException {
-        try (ObjectInputStream in = new ObjectInputStream(new FileInputStream(filename))) {
-            tables = (List<Table>) in.readObject();
-            servers = (List<Server>) in.readObject();
-            menu = (List<MenuItem>) in.readObject();
-        }
+        StorageBackend.Snapshot snapshot = new FileStorageBackend(filename, DEFAULT_ARCHIVE_DIRECTORY).load();
+        tables = snapshot.getTables();
+        servers = snapshot.getServers();
+        menu = snapshot.getMenu();
+        setChangeFeed(changeFeed);
     }
 }
\ No newline at end of file
@@ -0,0 +1,295 @@
+// Filename SettlementEngine.java
+// Written by Anthony Colley
+// Updated on 10/18/2026
+// Final Project - Produces, Splits, and Settles Checks
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The SettlementEngine class turns a table's order into a check, splits checks between guests,
+ * applies tax and tips, and records payments through a PaymentProcessor. Payments are submitted
+ * with an idempotency key so that retries after a timeout never charge a guest twice.
+ */
+public class SettlementEngine {
+    private static final int DEFAULT_MAX_ATTEMPTS = 3;   // Attempts per payment before giving up
+    private static final long RETRY_DELAY_MILLIS = 50;   // Delay before the first retry, doubled after each
+
+    private final PaymentProcessor paymentProcessor;  // Charges guests for their checks
+    private final BigDecimal taxRate;                 // Tax rate as a percentage (e.g. 8.25)
+    private final int maxAttempts;                    // Attempts per payment before giving up
+    private final AtomicLong nextCheckNumber;         // Source of check numbers
+
+    /**
+     * Constructor to initialize the engine with the default number of payment attempts.
+     *
+     * @param paymentProcessor The processor used to charge guests.
+     * @param taxRate          The tax rate as a percentage (e.g. 8.25 for 8.25%).
+     */
+    public SettlementEngine(PaymentProcessor paymentProcessor, BigDecimal taxRate) {
+        this(paymentProcessor, taxRate, DEFAULT_MAX_ATTEMPTS);
+    }
+
+    /**
+     * Constructor to initialize the engine.
+     *
+     * @param paymentProcessor The processor used to charge guests.
+     * @param taxRate          The tax rate as a percentage (e.g. 8.25 for 8.25%).
+     * @param maxAttempts      The number of times to submit a payment before giving up.
+     */
+    public SettlementEngine(PaymentProcessor paymentProcessor, BigDecimal taxRate, int maxAttempts) {
+        this.paymentProcessor = paymentProcessor;
+        this.taxRate = taxRate;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.nextCheckNumber = new AtomicLong(1);
+    }
+
+    /**
+     * Produces a check for everything on a table's current order.
+     *
+     * @param table The table requesting the check.
+     * @return The check with tax applied.
+     */
+    public Check createCheck(Table table) {
+        Order order = table.getCurrentOrder();
+        List<Check.LineItem> lineItems = new ArrayList<>();
+        BigDecimal subtotal = Money.ZERO;
+        for (int i = 0; i < order.getItems().size(); i++) {
+            MenuItem item = order.getItems().get(i);
+            Check.LineItem lineItem = new Check.LineItem(item.getName(), Money.of(item.getPrice()), order.getSeat(i));
+            lineItems.add(lineItem);
+            subtotal = subtotal.add(lineItem.getAmount());
+        }
+        String checkId = "T" + table.getTableNumber() + "-" + nextCheckNumber.getAndIncrement();
+        return new Check(checkId, table.getTableNumber(), lineItems, Money.percentOf(subtotal, taxRate));
+    }
+
+    /**
+     * Splits a check so that each seat pays for its own items. Items shared by the table
+     * (seat 0) are divided evenly between the seats.
+     *
+     * @param check The check to split.
+     * @return One check per seat, or the original check if no items belong to a seat.
+     */
+    public List<Check> splitBySeat(Check check) {
+        Map<Integer, List<Check.LineItem>> bySeat = new TreeMap<>();
+        List<Check.LineItem> shared = new ArrayList<>();
+        for (Check.LineItem lineItem : check.getLineItems()) {
+            if (lineItem.getSeat() > 0) {
+                bySeat.computeIfAbsent(lineItem.getSeat(), seat -> new ArrayList<>()).add(lineItem);
+            } else {
+                shared.add(lineItem);
+            }
+        }
+        if (bySeat.isEmpty()) {
+            return List.of(check);
+        }
+
+        // Divide each shared item evenly between the seats
+        List<Integer> seats = new ArrayList<>(bySeat.keySet());
+        List<BigDecimal> evenWeights = evenWeights(seats.size());
+        for (Check.LineItem lineItem : shared) {
+            List<BigDecimal> shares = Money.allocate(lineItem.getAmount(), evenWeights);
+            for (int i = 0; i < seats.size(); i++) {
+                String description = lineItem.getDescription() + " (shared 1/" + seats.size() + ")";
+                bySeat.get(seats.get(i)).add(new Check.LineItem(description, shares.get(i), seats.get(i)));
+            }
+        }
+        return buildSplit(check, new ArrayList<>(bySeat.values()));
+    }
+
+    /**
+     * Splits a check by assigning each line item to a guest.
+     *
+     * @param check  The check to split.
+     * @param groups For each guest, the positions of the line items they are paying for.
+     * @return One check per guest.
+     * @throws IllegalArgumentException If a line item is missing, repeated, or out of range.
+     */
+    public List<Check> splitByItem(Check check, List<List<Integer>> groups) {
+        List<Check.LineItem> lineItems = check.getLineItems();
+        boolean[] assigned = new boolean[lineItems.size()];
+        List<List<Check.LineItem>> parts = new ArrayList<>();
+        for (List<Integer> group : groups) {
+            List<Check.LineItem> part = new ArrayList<>();
+            for (int index : group) {
+                if (index < 0 || index >= lineItems.size()) {
+                    throw new IllegalArgumentException("Check " + check.getCheckId() + " has no item " + index + ".");
+                }
+                if (assigned[index]) {
+                    throw new IllegalArgumentException("Item " + index + " is assigned to more than one guest.");
+                }
+                assigned[index] = true;
+                part.add(lineItems.get(index));
+            }
+            parts.add(part);
+        }
+        for (int i = 0; i < assigned.length; i++) {
+            if (!assigned[i]) {
+                throw new IllegalArgumentException("Item " + i + " is not assigned to any guest.");
+            }
+        }
+        return buildSplit(check, parts);
+    }
+
+    /**
+     * Splits a check evenly between a number of guests. Leftover cents go to the first guests.
+     *
+     * @param check  The check to split.
+     * @param guests The number of guests sharing the check.
+     * @return One check per guest.
+     * @throws IllegalArgumentException If the number of guests is less than one.
+     */
+    public List<Check> splitEvenly(Check check, int guests) {
+        if (guests < 1) {
+            throw new IllegalArgumentException("A check must be split between at least one guest.");
+        }
+        List<BigDecimal> shares = Money.allocate(check.getSubtotal(), evenWeights(guests));
+        List<List<Check.LineItem>> parts = new ArrayList<>();
+        for (int i = 0; i < guests; i++) {
+            String description = "Share " + (i + 1) + " of " + guests;
+            parts.add(List.of(new Check.LineItem(description, shares.get(i), 0)));
+        }
+        return buildSplit(check, parts);
+    }
+
+    /**
+     * Adds a tip of a fixed amount to a check, replacing any earlier tip.
+     *
+     * @param check  The check to tip on.
+     * @param amount The tip amount.
+     */
+    public void applyTip(Check check, BigDecimal amount) {
+        if (amount.signum() < 0) {
+            throw new IllegalArgumentException("A tip cannot be negative.");
+        }
+        check.setTip(amount);
+    }
+
+    /**
+     * Adds a tip calculated as a percentage of the subtotal, replacing any earlier tip.
+     *
+     * @param check   The check to tip on.
+     * @param percent The tip percentage (e.g. 20 for 20%).
+     */
+    public void applyTipPercent(Check check, BigDecimal percent) {
+        applyTip(check, Money.percentOf(check.getSubtotal(), percent));
+    }
+
+    /**
+     * Creates a new idempotency key for a payment. The same key must be reused when
+     * the payment is retried so that the guest is only charged once.
+     *
+     * @return A new, unique idempotency key.
+     */
+    public String newIdempotencyKey() {
+        return UUID.randomUUID().toString();
+    }
+
+    /**
+     * Charges an amount against a check and records the payment. Retryable failures are
+     * submitted again with the same idempotency key, and a key that has already been
+     * recorded on the check returns the original payment without charging again.
+     *
+     * @param check          The check being paid.
+     * @param amount         The amount to charge.
+     * @param idempotencyKey The key identifying this payment across retries.
+     * @return The recorded payment.
+     * @throws PaymentException If the payment is invalid or the processor does not accept it.
+     */
+    public Payment recordPayment(Check check, BigDecimal amount, String idempotencyKey) throws PaymentException {
+        BigDecimal charge = Money.round(amount);
+        synchronized (check) {
+            Payment existing = check.findPayment(idempotencyKey);
+            if (existing != null) {
+                return existing;
+            }
+            if (charge.signum() <= 0) {
+                throw new PaymentException("Payment amount must be greater than zero.", false);
+            }
+            if (charge.compareTo(check.getBalanceDue()) > 0) {
+                throw new PaymentException("Payment of $" + charge + " exceeds the balance of $"
+                        + check.getBalanceDue() + " on check " + check.getCheckId() + ".", false);
+            }
+
+            String confirmationNumber = submit(idempotencyKey, charge);
+            Payment payment = new Payment(check.getCheckId(), idempotencyKey, confirmationNumber, charge);
+            check.addPayment(payment);
+            return payment;
+        }
+    }
+
+    /**
+     * Charges the full remaining balance of a check. If an earlier attempt failed, the retry
+     * reuses that attempt's idempotency key, so the guest cannot be charged twice.
+     *
+     * @param check The check being paid.
+     * @return The recorded payment.
+     * @throws PaymentException If the check is already settled or the processor does not accept the payment.
+     */
+    public Payment payBalance(Check check) throws PaymentException {
+        synchronized (check) {
+            return recordPayment(check, check.getBalanceDue(), check.pendingPaymentKey(newIdempotencyKey()));
+        }
+    }
+
+    // Submits a charge to the processor, retrying retryable failures with the same key
+    private String submit(String idempotencyKey, BigDecimal amount) throws PaymentException {
+        long delay = RETRY_DELAY_MILLIS;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return paymentProcessor.charge(idempotencyKey, amount);
+            } catch (PaymentException e) {
+                if (!e.isRetryable() || attempt >= maxAttempts) {
+                    throw e;
+                }
+            }
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new PaymentException("Payment was interrupted before it could be retried.", true);
+            }
+            delay *= 2;
+        }
+    }
+
+    // Builds the checks for a split, dividing the original tax and tip in proportion to each subtotal
+    private List<Check> buildSplit(Check check, List<List<Check.LineItem>> parts) {
+        if (!check.getPayments().isEmpty()) {
+            throw new IllegalStateException("Check " + check.getCheckId() + " already has payments and cannot be split.");
+        }
+        List<BigDecimal> subtotals = new ArrayList<>();
+        for (List<Check.LineItem> part : parts) {
+            BigDecimal subtotal = Money.ZERO;
+            for (Check.LineItem lineItem : part) {
+                subtotal = subtotal.add(lineItem.getAmount());
+            }
+            subtotals.add(subtotal);
+        }
+        List<BigDecimal> taxes = Money.allocate(check.getTax(), subtotals);
+        List<BigDecimal> tips = Money.allocate(check.getTip(), subtotals);
+
+        List<Check> checks = new ArrayList<>();
+        for (int i = 0; i < parts.size(); i++) {
+            String checkId = check.getCheckId() + "-" + (i + 1);
+            Check split = new Check(checkId, check.getTableNumber(), parts.get(i), taxes.get(i));
+            split.setTip(tips.get(i));
+            checks.add(split);
+        }
+        return checks;
+    }
+
+    private static List<BigDecimal> evenWeights(int count) {
+        List<BigDecimal> weights = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            weights.add(BigDecimal.ONE);
+        }
+        return weights;
+    }
+}
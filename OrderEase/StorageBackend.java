@@ -0,0 +1,173 @@
+// Filename StorageBackend.java
+// Written by Anthony Colley
+// Updated on 10/18/2026
+// Final Project - Storage Interface for Restaurant Data
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * The StorageBackend interface describes where the restaurant keeps its data. It covers the
+ * live data (tables with their current orders, servers, and the menu) as well as the history
+ * (closed orders, retired menu items, and inactive servers), so that Restaurant does not
+ * depend on how or where anything is stored.
+ */
+public interface StorageBackend extends Closeable {
+
+    /**
+     * Saves the live restaurant data, replacing whatever was saved before.
+     *
+     * @param tables  The tables, including their current orders.
+     * @param servers The active servers.
+     * @param menu    The current menu.
+     * @throws IOException If an I/O error occurs.
+     */
+    void save(List<Table> tables, List<Server> servers, List<MenuItem> menu) throws IOException;
+
+    /**
+     * Loads the live restaurant data. Tables refer to the same Server objects that are returned
+     * in the list of servers.
+     *
+     * @return The saved tables, servers, and menu.
+     * @throws IOException If an I/O error occurs or nothing has been saved.
+     */
+    Snapshot load() throws IOException;
+
+    /**
+     * Looks up a single table without loading the rest of the restaurant where possible.
+     *
+     * @param tableNumber The table number.
+     * @return The table, or null if no table has that number.
+     * @throws IOException If an I/O error occurs.
+     */
+    Table findTable(int tableNumber) throws IOException;
+
+    /**
+     * Looks up a single active server without loading the rest of the restaurant where possible.
+     *
+     * @param name The name of the server, in any case.
+     * @return The server, or null if no active server has that name.
+     * @throws IOException If an I/O error occurs.
+     */
+    Server findServer(String name) throws IOException;
+
+    /**
+     * Looks up a single item on the current menu without loading the rest of the restaurant where possible.
+     *
+     * @param name The name of the menu item, in any case.
+     * @return The menu item, or null if the menu has no item with that name.
+     * @throws IOException If an I/O error occurs.
+     */
+    MenuItem findMenuItem(String name) throws IOException;
+
+    /**
+     * Adds a closed order to the history.
+     *
+     * @param order The closed order.
+     * @throws IOException If an I/O error occurs.
+     */
+    void archiveOrder(Order order) throws IOException;
+
+    /**
+     * Looks up a closed order in the history.
+     *
+     * @param orderId The identifier of the order.
+     * @return The order, or null if no closed order has that identifier.
+     * @throws IOException If an I/O error occurs.
+     */
+    Order findOrder(String orderId) throws IOException;
+
+    /**
+     * Finds the orders closed at a table during a period of time.
+     *
+     * @param tableNumber The table number.
+     * @param from        The start of the period (inclusive).
+     * @param to          The end of the period (exclusive).
+     * @return The matching orders, oldest first.
+     * @throws IOException If an I/O error occurs.
+     */
+    List<Order> findOrders(int tableNumber, LocalDateTime from, LocalDateTime to) throws IOException;
+
+    /**
+     * Reads every closed order in the history one at a time.
+     *
+     * @param action The action to perform on each order.
+     * @throws IOException If an I/O error occurs.
+     */
+    void forEachOrder(Consumer<? super Order> action) throws IOException;
+
+    /**
+     * Counts how many times each menu item appears across every closed order.
+     *
+     * @return The number of times each menu item was ordered, by item name.
+     * @throws IOException If an I/O error occurs.
+     */
+    Map<String, Long> countItemsOrdered() throws IOException;
+
+    /**
+     * Adds a menu item that is no longer offered to the history and removes it from the
+     * live data, so lookups no longer find it.
+     *
+     * @param item The retired menu item.
+     * @throws IOException If an I/O error occurs.
+     */
+    void archiveMenuItem(MenuItem item) throws IOException;
+
+    /**
+     * Looks up a retired menu item in the history.
+     *
+     * @param name The name of the menu item.
+     * @return The menu item, or null if no retired item has that name.
+     * @throws IOException If an I/O error occurs.
+     */
+    MenuItem findRetiredMenuItem(String name) throws IOException;
+
+    /**
+     * Adds a server who no longer works at the restaurant to the history and removes them
+     * from the live data, leaving their tables without a server.
+     *
+     * @param server The inactive server.
+     * @throws IOException If an I/O error occurs.
+     */
+    void archiveServer(Server server) throws IOException;
+
+    /**
+     * Looks up an inactive server in the history.
+     *
+     * @param name The name of the server.
+     * @return The server, or null if no inactive server has that name.
+     * @throws IOException If an I/O error occurs.
+     */
+    Server findInactiveServer(String name) throws IOException;
+
+    /**
+     * The Snapshot class holds the live restaurant data returned by load().
+     */
+    class Snapshot {
+        private final List<Table> tables;
+        private final List<Server> servers;
+        private final List<MenuItem> menu;
+
+        public Snapshot(List<Table> tables, List<Server> servers, List<MenuItem> menu) {
+            this.tables = tables;
+            this.servers = servers;
+            this.menu = menu;
+        }
+
+        public List<Table> getTables() {
+            return tables;
+        }
+
+        public List<Server> getServers() {
+            return servers;
+        }
+
+        public List<MenuItem> getMenu() {
+            return menu;
+        }
+    }
+}
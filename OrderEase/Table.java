@@ -1,6 +1,6 @@
 // Filename Table.java
 // Written by Anthony Colley
-// Updated on 10/8/2024
+// Updated on 10/18/2026
 // Final Project - Represents a Table in the Restaurant
 
 import java.io.Serializable;
@@ -16,6 +16,7 @@ public class Table implements Serializable {
     private Server assignedServer;    // The server assigned to the table
     private Order currentOrder;       // The current order associated with the table
     private LocalDateTime seatingTime; // The time the guests were seated
+    private transient ChangeFeed changeFeed; // Where changes to the table are published, if anywhere
 
     /**
      * Constructor to initialize a table with a specific number.
@@ -38,18 +39,36 @@ public class Table implements Serializable {
 
     public void setAssignedServer(Server assignedServer) {
         this.assignedServer = assignedServer;
+        publish(ChangeEvent.Type.TABLE_SERVER_ASSIGNED, "server=" + (assignedServer == null ? "none" : assignedServer.getName()));
     }
 
     public Order getCurrentOrder() {
         return currentOrder;
     }
 
+    public void setCurrentOrder(Order currentOrder) {
+        this.currentOrder = currentOrder;
+        currentOrder.setChangeFeed(changeFeed, tableNumber);
+        publish(ChangeEvent.Type.TABLE_ORDER_STARTED, "order=" + currentOrder.getOrderId());
+    }
+
     public LocalDateTime getSeatingTime() {
         return seatingTime;
     }
 
     public void setSeatingTime(LocalDateTime seatingTime) {
         this.seatingTime = seatingTime;
+        publish(ChangeEvent.Type.TABLE_SEATED, "time=" + seatingTime);
+    }
+
+    /**
+     * Starts publishing changes to this table and its current order.
+     *
+     * @param changeFeed Where changes are published, or null to stop publishing.
+     */
+    public void setChangeFeed(ChangeFeed changeFeed) {
+        this.changeFeed = changeFeed;
+        currentOrder.setChangeFeed(changeFeed, tableNumber);
     }
 
     /**
@@ -60,4 +79,10 @@ public class Table implements Serializable {
     public long getSeatingDuration() {
         return java.time.Duration.between(seatingTime, LocalDateTime.now()).toMinutes();
     }
+
+    private void publish(ChangeEvent.Type type, String detail) {
+        if (changeFeed != null) {
+            changeFeed.publish(type, Integer.toString(tableNumber), detail);
+        }
+    }
 }